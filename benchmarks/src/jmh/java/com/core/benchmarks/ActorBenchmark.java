@@ -0,0 +1,44 @@
+package com.core.benchmarks;
+
+import com.badlogic.gdx.Input;
+import com.core.base.actor.BaseActor4D;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link BaseActor4D#act(float)}, which runs its movement update, and the direction change done by
+ * {@link BaseActor4D#keyDown(int)}.
+ *
+ * @author Tamir Eliraz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ActorBenchmark {
+    private static final float DT = 1 / 60f;
+    private static final int[] KEYS = {Input.Keys.RIGHT, Input.Keys.UP, Input.Keys.LEFT, Input.Keys.DOWN};
+    @Param({"100", "10000", "100000"})
+    public int actors;
+    private BaseActor4D[] scene;
+    private int key;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        scene = Scene.create(actors);
+        for (BaseActor4D actor : scene) actor.startAnimation();
+    }
+    
+    @Benchmark
+    public void update() {
+        for (BaseActor4D actor : scene) actor.act(DT);
+    }
+    
+    @Benchmark
+    public boolean keyDown() {
+        int keycode = KEYS[key++ & 3];
+        boolean handled = false;
+        for (BaseActor4D actor : scene) handled |= actor.keyDown(keycode);
+        return handled;
+    }
+}
@@ -0,0 +1,55 @@
+package com.core.benchmarks;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.core.base.actor.BaseActor4D;
+import com.core.base.actor.BaseAnimation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-frame cost of {@link BaseAnimation}: advancing the clocks, picking the key frames and drawing them
+ * into a {@link CountingBatch}.
+ *
+ * @author Tamir Eliraz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnimationBenchmark {
+    private static final float DT = 1 / 60f;
+    @Param({"100", "10000", "100000"})
+    public int actors;
+    private BaseAnimation[] animations;
+    private CountingBatch batch;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        BaseActor4D[] scene = Scene.create(actors);
+        animations = new BaseAnimation[scene.length];
+        for (int i = 0; i < scene.length; i++) animations[i] = scene[i].getAnimation();
+        batch = new CountingBatch();
+    }
+    
+    @Benchmark
+    public void act() {
+        for (BaseAnimation animation : animations) animation.act(DT);
+    }
+    
+    @Benchmark
+    public void getKeyFrame(Blackhole blackhole) {
+        for (BaseAnimation animation : animations) {
+            TextureRegion frame = animation.getKeyFrame(animation.getElapsedTime());
+            blackhole.consume(frame);
+        }
+    }
+    
+    @Benchmark
+    public long draw() {
+        batch.begin();
+        for (BaseAnimation animation : animations) animation.draw(batch);
+        batch.end();
+        return batch.sprites;
+    }
+}
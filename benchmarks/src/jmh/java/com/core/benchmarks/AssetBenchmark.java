@@ -0,0 +1,49 @@
+package com.core.benchmarks;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.core.handler.AssetManagerHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link AssetManagerHandler#getTexture(String)} and {@link AssetManagerHandler#getTexture(int)} on a
+ * resident texture, and the miss path that loads a texture from disk, evicting another one to stay within the
+ * texture budget.
+ *
+ * @author Tamir Eliraz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AssetBenchmark {
+    private AssetManagerHandler handler;
+    private String hit;
+    private int hitHandle;
+    private final String[] misses = new String[2];
+    private int miss;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Headless.start();
+        handler = AssetManagerHandler.getInstance();
+        hit = Headless.sheet("build/jmh-assets/hit.png");
+        misses[0] = Headless.sheet("build/jmh-assets/miss-a.png");
+        misses[1] = Headless.sheet("build/jmh-assets/miss-b.png");
+        handler.retainTexture(hit);
+        handler.getTexture(hit);
+        hitHandle = handler.resolveHandle(hit);
+        handler.getTexture(misses[0]);
+        handler.setTextureBudget(handler.getResidentBytes());
+    }
+    
+    @Benchmark
+    public Texture hitByName() { return handler.getTexture(hit); }
+    
+    @Benchmark
+    public Texture hitByHandle() { return handler.getTexture(hitHandle); }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Texture miss() { return handler.getTexture(misses[++miss & 1]); }
+}
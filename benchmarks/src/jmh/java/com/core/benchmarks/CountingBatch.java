@@ -0,0 +1,155 @@
+package com.core.benchmarks;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * A {@link Batch} that draws nothing, but counts the sprites submitted to it and the texture switches a real batch
+ * would flush on.
+ *
+ * @author Tamir Eliraz
+ */
+final class CountingBatch implements Batch {
+    private final Color color = new Color(Color.WHITE);
+    private final Matrix4 projection = new Matrix4(), transform = new Matrix4();
+    private float packedColor = Color.WHITE_FLOAT_BITS;
+    private Texture lastTexture;
+    private boolean drawing, blending = true;
+    private ShaderProgram shader;
+    long sprites, textureSwitches;
+    
+    private void count(Texture texture) {
+        sprites++;
+        if (texture != lastTexture) {
+            lastTexture = texture;
+            textureSwitches++;
+        }
+    }
+    
+    @Override
+    public void begin() { drawing = true; }
+    
+    @Override
+    public void end() { drawing = false; lastTexture = null; }
+    
+    @Override
+    public void setColor(Color tint) { color.set(tint); packedColor = color.toFloatBits(); }
+    
+    @Override
+    public void setColor(float r, float g, float b, float a) { color.set(r, g, b, a); packedColor = color.toFloatBits(); }
+    
+    @Override
+    public Color getColor() { return color; }
+    
+    @Override
+    public void setPackedColor(float packedColor) { this.packedColor = packedColor; }
+    
+    @Override
+    public float getPackedColor() { return packedColor; }
+    
+    @Override
+    public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight,
+                     boolean flipX, boolean flipY) { count(texture); }
+    
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth,
+                     int srcHeight, boolean flipX, boolean flipY) { count(texture); }
+    
+    @Override
+    public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+        count(texture);
+    }
+    
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2,
+                     float v2) { count(texture); }
+    
+    @Override
+    public void draw(Texture texture, float x, float y) { count(texture); }
+    
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height) { count(texture); }
+    
+    @Override
+    public void draw(Texture texture, float[] spriteVertices, int offset, int count) { count(texture); }
+    
+    @Override
+    public void draw(TextureRegion region, float x, float y) { count(region.getTexture()); }
+    
+    @Override
+    public void draw(TextureRegion region, float x, float y, float width, float height) { count(region.getTexture()); }
+    
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation) { count(region.getTexture()); }
+    
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation, boolean clockwise) { count(region.getTexture()); }
+    
+    @Override
+    public void draw(TextureRegion region, float width, float height, Affine2 transform) {
+        count(region.getTexture());
+    }
+    
+    @Override
+    public void flush() { lastTexture = null; }
+    
+    @Override
+    public void disableBlending() { blending = false; }
+    
+    @Override
+    public void enableBlending() { blending = true; }
+    
+    @Override
+    public void setBlendFunction(int srcFunc, int dstFunc) { }
+    
+    @Override
+    public void setBlendFunctionSeparate(int srcFuncColor, int dstFuncColor, int srcFuncAlpha, int dstFuncAlpha) { }
+    
+    @Override
+    public int getBlendSrcFunc() { return GL20.GL_SRC_ALPHA; }
+    
+    @Override
+    public int getBlendDstFunc() { return GL20.GL_ONE_MINUS_SRC_ALPHA; }
+    
+    @Override
+    public int getBlendSrcFuncAlpha() { return GL20.GL_SRC_ALPHA; }
+    
+    @Override
+    public int getBlendDstFuncAlpha() { return GL20.GL_ONE_MINUS_SRC_ALPHA; }
+    
+    @Override
+    public Matrix4 getProjectionMatrix() { return projection; }
+    
+    @Override
+    public Matrix4 getTransformMatrix() { return transform; }
+    
+    @Override
+    public void setProjectionMatrix(Matrix4 projection) { this.projection.set(projection); }
+    
+    @Override
+    public void setTransformMatrix(Matrix4 transform) { this.transform.set(transform); }
+    
+    @Override
+    public void setShader(ShaderProgram shader) { this.shader = shader; }
+    
+    @Override
+    public ShaderProgram getShader() { return shader; }
+    
+    @Override
+    public boolean isBlendingEnabled() { return blending; }
+    
+    @Override
+    public boolean isDrawing() { return drawing; }
+    
+    @Override
+    public void dispose() { }
+}
@@ -0,0 +1,23 @@
+package com.core.benchmarks;
+
+import com.badlogic.gdx.Input;
+import com.core.base.enums.Direction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Direction#getByKey(int)} over every key code, bound or not.
+ *
+ * @author Tamir Eliraz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DirectionBenchmark {
+    @Benchmark
+    public void getByKey(Blackhole blackhole) {
+        for (int keycode = 0; keycode <= Input.Keys.MAX_KEYCODE; keycode++) blackhole.consume(Direction.getByKey(keycode));
+    }
+}
@@ -0,0 +1,60 @@
+package com.core.benchmarks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Starts a headless libGDX application once per JVM, with the library's {@link GL20} that does nothing (see
+ * {@link com.core.base.game.Headless#install()}), so that textures can be loaded and the code under benchmark can run
+ * without a GPU.
+ *
+ * @author Tamir Eliraz
+ */
+final class Headless {
+    /**
+     * The frame size of the generated sprite sheets.
+     */
+    static final int FRAME_SIZE = 32;
+    /**
+     * The number of columns of the generated four-directional sprite sheets.
+     */
+    static final int COLUMNS = 9;
+    private static boolean started;
+    
+    private Headless() { }
+    
+    static synchronized void start() {
+        if (started) return;
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.updatesPerSecond = -1;
+        new HeadlessApplication(new ApplicationAdapter() { }, config);
+        com.core.base.game.Headless.install();
+        started = true;
+    }
+    
+    /**
+     * Writes a four-directional sprite sheet of {@link #COLUMNS} columns, unless it already exists.
+     *
+     * @param name
+     *         the file name, relative to the working directory
+     * @return the file name, to pass to the library
+     */
+    static @NotNull String sheet(@NotNull String name) {
+        FileHandle file = Gdx.files.local(name);
+        if (file.exists()) return name;
+        Pixmap pixmap = new Pixmap(FRAME_SIZE * COLUMNS, FRAME_SIZE * 4, Pixmap.Format.RGBA8888);
+        pixmap.setColor(0.2f, 0.6f, 0.9f, 1);
+        pixmap.fill();
+        PixmapIO.writePNG(file, pixmap);
+        pixmap.dispose();
+        return name;
+    }
+    
+}
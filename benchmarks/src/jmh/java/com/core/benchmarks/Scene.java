@@ -0,0 +1,32 @@
+package com.core.benchmarks;
+
+import com.core.base.actor.BaseActor4D;
+import com.core.base.enums.Direction;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * A seeded scene of {@link BaseActor4D}s sharing one sprite sheet, outside any stage.
+ *
+ * @author Tamir Eliraz
+ */
+final class Scene {
+    static final String SHEET = "build/jmh-assets/walk.png";
+    
+    private Scene() { }
+    
+    static BaseActor4D @NotNull [] create(int size) {
+        Headless.start();
+        String sheet = Headless.sheet(SHEET);
+        Random random = new Random(42);
+        BaseActor4D[] actors = new BaseActor4D[size];
+        for (int i = 0; i < size; i++) {
+            actors[i] = new BaseActor4D(random.nextFloat() * 4096, random.nextFloat() * 4096, null, null, 0.1f,
+                    sheet, Headless.COLUMNS, Direction.values());
+            actors[i].setDirection(Direction.values()[random.nextInt(4)]);
+            actors[i].getAnimation().setElapsedTime(random.nextFloat());
+        }
+        return actors;
+    }
+}
@@ -0,0 +1,129 @@
+package com.core.base.actor;
+
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pools;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Supplier;
+
+/**
+ * <p>A {@link Pool} of {@link PoolableActor}s, such as {@link BaseActor}, {@link BaseActor4D} and
+ * {@link com.core.base.group.BaseGroup BaseGroup}. Obtained actors return to the pool by themselves when they are
+ * {@link Actor#remove() removed} from their parent, and are {@link PoolableActor#reset() reset} on the way; once the pool
+ * is {@link #prewarm(int) pre-warmed}, spawning and despawning allocate nothing.</p>
+ * <p>Note: only {@link Actor#remove()} returns an actor to the pool, not clearing its stage or group.</p>
+ *
+ * @param <T>
+ *         the type of the pooled actors
+ * @author Tamir Eliraz
+ * @see com.badlogic.gdx.utils.Pools
+ */
+public class ActorPool<T extends Actor & PoolableActor> extends Pool<T> {
+    private final Supplier<T> factory;
+    
+    /**
+     * @param factory
+     *         creates a new actor whenever the pool is empty
+     */
+    public ActorPool(@NotNull Supplier<T> factory) {
+        super();
+        this.factory = factory;
+    }
+    
+    /**
+     * @param factory
+     *         creates a new actor whenever the pool is empty
+     * @param initialCapacity
+     *         the initial size of the array of free actors
+     * @param max
+     *         the maximum number of free actors to keep; further returned actors are discarded
+     */
+    public ActorPool(@NotNull Supplier<T> factory, int initialCapacity, int max) {
+        super(initialCapacity, max);
+        this.factory = factory;
+    }
+    
+    /**
+     * Creates a pool and registers it in {@link Pools} for the given type, so that {@link Pools#obtain(Class)} hands
+     * out pooled actors.
+     *
+     * @param type
+     *         the type of the pooled actors
+     * @param factory
+     *         creates a new actor whenever the pool is empty
+     * @return the registered pool
+     */
+    public static <T extends Actor & PoolableActor> ActorPool<T> register(@NotNull Class<T> type,
+                                                                        @NotNull Supplier<T> factory) {
+        ActorPool<T> pool = new ActorPool<>(factory);
+        Pools.set(type, pool);
+        return pool;
+    }
+    
+    @Override
+    protected T newObject() { return factory.get(); }
+    
+    @Override
+    public T obtain() {
+        T actor = super.obtain();
+        actor.setPool(this);
+        return actor;
+    }
+    
+    /**
+     * Obtains an actor and places it at the given position in the given {@link Stage}.
+     *
+     * @return the obtained actor
+     */
+    public T obtain(float x, float y, @NotNull Stage stage) {
+        T actor = obtain();
+        actor.setPosition(x, y);
+        stage.addActor(actor);
+        return actor;
+    }
+    
+    /**
+     * Obtains an actor and places it at the given position in the given {@link Group}.
+     *
+     * @return the obtained actor
+     */
+    public T obtain(float x, float y, @NotNull Group group) {
+        T actor = obtain();
+        actor.setPosition(x, y);
+        group.addActor(actor);
+        return actor;
+    }
+    
+    /**
+     * Creates actors until the pool holds at least {@code count} free ones, so that the next spawns allocate nothing.
+     *
+     * @param count
+     *         the number of free actors to hold
+     * @return this pool to allow for method chaining
+     */
+    public ActorPool<T> prewarm(int count) {
+        int missing = count - getFree();
+        if (missing > 0) fill(missing);
+        return this;
+    }
+    
+    @Override
+    protected void reset(T actor) {
+        actor.setPool(null);
+        super.reset(actor);
+    }
+    
+    /**
+     * Returns an actor obtained from this pool, as {@link PoolableActor} implementations do on removal.
+     *
+     * @param actor
+     *         an actor obtained from this pool
+     */
+    @SuppressWarnings("unchecked")
+    public void release(@NotNull PoolableActor actor) {
+        if (actor.getPool() == this) free((T) actor);
+    }
+}
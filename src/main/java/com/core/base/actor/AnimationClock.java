@@ -0,0 +1,49 @@
+package com.core.base.actor;
+
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.utils.SnapshotArray;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>A monotonic clock shared by every {@link BaseAnimation} of a {@link com.core.base.game.BaseStage BaseStage} (see
+ * {@link com.core.base.game.BaseStage#setSharedAnimationClock BaseStage.setSharedAnimationClock}). An animation on a
+ * shared clock stores only the time it started at and the time it was paused at, and computes its elapsed time when
+ * it is drawn, so that advancing the animations of the whole stage is a single write to the clock.</p>
+ *
+ * @author Tamir Eliraz
+ */
+public class AnimationClock {
+    private double time;
+    
+    /**
+     * @return the time in seconds since this clock was created
+     */
+    public double getTime() { return time; }
+    
+    /**
+     * @param dt
+     *         the time in seconds since the last call
+     */
+    public void advance(float dt) { time += dt; }
+    
+    /**
+     * Puts the animation of every {@link BaseActor} in the given group, and its subgroups, on the clock of the actor's
+     * stage, if it has one, or on its own clock otherwise, keeping the animations' elapsed times.
+     *
+     * @param group
+     *         the group, usually the root of a stage
+     */
+    public static void sync(@NotNull Group group) {
+        SnapshotArray<Actor> children = group.getChildren();
+        Actor[] actors = children.begin();
+        try {
+            for (int i = 0, n = children.size; i < n; i++) {
+                if (actors[i] instanceof BaseActor actor) actor.syncAnimationClock();
+                if (actors[i] instanceof Group child) sync(child);
+            }
+        } finally {
+            children.end();
+        }
+    }
+}
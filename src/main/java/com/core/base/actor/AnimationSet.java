@@ -0,0 +1,204 @@
+package com.core.base.actor;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.core.base.enums.Direction;
+import com.core.handler.AssetManagerHandler;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * <p>An immutable set of animation frames cut from a single sprite sheet, shared by every {@link BaseAnimation} and
+ * {@link BaseActor4D} built from the same sheet. Sets are cached by (file, rows, columns, frame duration, row order), so
+ * the sheet is split only once no matter how many actors use it; each actor keeps nothing but its own playback state.
+ * Sheets preprocessed at build time are {@link #load(String) loaded} from their {@link SpriteSheetMetadata} instead,
+ * without being split at all.</p>
+ * <p>The frame arrays returned by this class are shared and must never be modified.</p>
+ *
+ * @author Tamir Eliraz
+ * @see BaseAnimation
+ */
+public final class AnimationSet {
+    private static final HashMap<Key, AnimationSet> cache = new HashMap<>();
+    private static final HashMap<String, SpriteSheetMetadata> metadataCache = new HashMap<>();
+    
+    static { AssetManagerHandler.getInstance().addEvictionListener(AnimationSet::invalidate); }
+    private final Key key;
+    private final String fileName;
+    private final float frameDuration;
+    private final boolean placeholder;
+    /**
+     * The precomputed layout of the sheet, or {@code null} if the sheet is split by rows and columns.
+     */
+    private final SpriteSheetMetadata metadata;
+    private final TextureRegion[] frames;
+    /**
+     * The row of frames of each {@link Direction}, indexed by {@link Direction#ordinal()}.
+     */
+    private final TextureRegion[][] directionFrames;
+    
+    private record Key(String fileName, int rows, int cols, float frameDuration, List<Direction> directions) { }
+    
+    private AnimationSet(@NotNull Key key, @Nullable SpriteSheetMetadata metadata) {
+        this.key = key;
+        this.metadata = metadata;
+        fileName = key.fileName();
+        frameDuration = key.frameDuration();
+        TextureRegion sheet = AssetManagerHandler.getInstance().getRegion(fileName, Texture.TextureFilter.Linear);
+        placeholder = AssetManagerHandler.getInstance().isPlaceholder(sheet.getTexture());
+        TextureRegion[][] grid = placeholder ? placeholderGrid(sheet, key.rows(), key.cols())
+                : metadata != null ? metadataGrid(sheet, metadata)
+                : sheet.split(sheet.getRegionWidth() / key.cols(), sheet.getRegionHeight() / key.rows());
+        frames = new TextureRegion[key.rows() * key.cols()];
+        for (int row = 0; row < grid.length; row++)
+            System.arraycopy(grid[row], 0, frames, row * key.cols(), grid[row].length);
+        directionFrames = new TextureRegion[Direction.values().length][];
+        for (int row = 0; row < key.directions().size(); row++) {
+            Direction direction = key.directions().get(row);
+            if (direction != null) directionFrames[direction.ordinal()] = grid[row];
+        }
+    }
+    
+    /**
+     * Returns the shared {@link AnimationSet} of a sprite sheet, splitting the sheet on first use.
+     * See the layout at {@link BaseAnimation}.
+     *
+     * @param fileName
+     *         the file name of the sprite sheet
+     * @param rows
+     *         the number of rows in the sprite sheet
+     * @param cols
+     *         the number of columns in the sprite sheet
+     * @param frameDuration
+     *         the duration of each frame in seconds
+     * @param directions
+     *         the {@link Direction} of each row, starting from the top row; rows without one are not bound to a direction
+     * @return the shared {@link AnimationSet} of the sprite sheet
+     */
+    public static AnimationSet of(String fileName, int rows, int cols, float frameDuration,
+                                  Direction @NotNull ... directions) {
+        return of(new Key(fileName, rows, cols, frameDuration, List.of(directions)));
+    }
+    
+    /**
+     * Returns the shared {@link AnimationSet} of a sprite sheet preprocessed at build time, built from the frame
+     * rectangles, row {@link Direction}s and frame duration of its {@link SpriteSheetMetadata}, with no split
+     * computation. The metadata file is read once; the texture it names is loaded like any other sprite sheet.
+     *
+     * @param metadataFile
+     *         the internal file name of the metadata ({@value SpriteSheetMetadata#FILE_EXTENSION}) file
+     * @return the shared {@link AnimationSet} of the sprite sheet
+     */
+    public static AnimationSet load(String metadataFile) {
+        SpriteSheetMetadata metadata = metadataCache.get(metadataFile);
+        if (metadata == null) {
+            metadata = SpriteSheetMetadata.read(Gdx.files.internal(metadataFile));
+            metadataCache.put(metadataFile, metadata);
+        }
+        int slash = metadataFile.lastIndexOf('/');
+        String textureFile = metadataFile.substring(0, slash + 1) + metadata.getTextureFile();
+        return of(new Key(textureFile, metadata.getRows(), metadata.getCols(), metadata.getFrameDuration(),
+                Arrays.asList(metadata.getRowDirections())), metadata);
+    }
+    
+    private static AnimationSet of(Key key) { return of(key, null); }
+    
+    private static AnimationSet of(Key key, @Nullable SpriteSheetMetadata metadata) {
+        AnimationSet set = cache.get(key);
+        if (set == null) {
+            set = new AnimationSet(key, metadata);
+            if (!set.isPlaceholder()) cache.put(key, set);
+        }
+        return set;
+    }
+    
+    private static TextureRegion[] @NotNull [] metadataGrid(TextureRegion sheet,
+                                                         @NotNull SpriteSheetMetadata metadata) {
+        TextureRegion[][] grid = new TextureRegion[metadata.getRows()][metadata.getCols()];
+        for (int row = 0, frame = 0; row < grid.length; row++)
+            for (int col = 0; col < grid[row].length; col++, frame++)
+                grid[row][col] = new TextureRegion(sheet, metadata.getFrameX(frame), metadata.getFrameY(frame),
+                        metadata.getFrameWidth(frame), metadata.getFrameHeight(frame));
+        return grid;
+    }
+    
+    private static TextureRegion[] @NotNull [] placeholderGrid(TextureRegion sheet, int rows, int cols) {
+        TextureRegion[][] grid = new TextureRegion[rows][cols];
+        for (TextureRegion[] row : grid) Arrays.fill(row, sheet);
+        return grid;
+    }
+    
+    /**
+     * Drops every cached {@link AnimationSet} of the given sprite sheet, e.g. after its {@link Texture} was unloaded.
+     * Actors holding one of the dropped sets keep using it.
+     *
+     * @param fileName
+     *         the file name of the sprite sheet
+     */
+    public static void invalidate(String fileName) { cache.keySet().removeIf(key -> key.fileName().equals(fileName)); }
+    
+    /**
+     * Drops every cached {@link AnimationSet} and {@link SpriteSheetMetadata}.
+     */
+    public static void clearCache() {
+        cache.clear();
+        metadataCache.clear();
+    }
+    
+    public String getFileName() { return fileName; }
+    
+    public float getFrameDuration() { return frameDuration; }
+    
+    /**
+     * @return the precomputed layout this set was {@link #load(String) loaded} from, or {@code null} if the sheet was
+     * split by rows and columns
+     */
+    public @Nullable SpriteSheetMetadata getMetadata() { return metadata; }
+    
+    /**
+     * @return all the frames of the sprite sheet, read row by row from left to right, starting from the top row
+     */
+    @Contract(pure = true)
+    public TextureRegion @NotNull [] getFrames() { return frames; }
+    
+    /**
+     * @param direction
+     *         a {@link Direction}
+     * @return the row of frames of the given {@link Direction}, or {@code null} if no row is bound to it
+     */
+    @Contract(pure = true)
+    public TextureRegion @Nullable [] getFrames(@NotNull Direction direction) {
+        return directionFrames[direction.ordinal()];
+    }
+    
+    /**
+     * @return {@code true} if the sprite sheet was not loaded yet when this set was built
+     * (see {@link AssetManagerHandler#isBlockingFallback()}), so every frame is the placeholder
+     */
+    public boolean isPlaceholder() { return placeholder; }
+    
+    /**
+     * Returns the real set once the sprite sheet of a {@link #isPlaceholder() placeholder} set finished loading.
+     *
+     * @return the set built from the loaded sprite sheet, or this set if it is not a placeholder or the sheet is still
+     * loading
+     */
+    public AnimationSet resolve() {
+        if (!placeholder || !AssetManagerHandler.getInstance().isLoaded(fileName)) return this;
+        return of(key, metadata);
+    }
+    
+    public boolean hasDirection(@NotNull Direction direction) { return getFrames(direction) != null; }
+    
+    /**
+     * @return {@code true} if the sprite sheet was preprocessed with its colors premultiplied by their alpha (see
+     * {@link SpriteSheetMetadata#isPremultipliedAlpha()})
+     */
+    public boolean isPremultipliedAlpha() { return metadata != null && metadata.isPremultipliedAlpha(); }
+}
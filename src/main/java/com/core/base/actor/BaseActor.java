@@ -1,19 +1,60 @@
 package com.core.base.actor;
 
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Array;
+import com.core.base.game.BaseStage;
+import com.core.jfr.AnimationSwitchEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
  * @author Tamir Eliraz
  * @see com.badlogic.gdx.scenes.scene2d.Actor
+ * @see ActorPool
  */
-public abstract class BaseActor extends Actor {
+public abstract class BaseActor extends Actor implements PoolableActor {
     private BaseAnimation animation;
+    /**
+     * The {@link ActorPool} this actor was obtained from, or {@code null} if it is not pooled.
+     */
+    private ActorPool<?> pool;
+    /**
+     * The {@link SpatialGrid} indexing this actor, or {@code null} if it is never culled, and its place in the grid.
+     */
+    SpatialGrid grid;
+    long cellKey;
+    int cellIndex;
+    /**
+     * The {@link SpatialGrid#getFrame() pass} of {@link #grid} that last found this actor on screen.
+     */
+    long visibleFrame;
+    private boolean sleepWhenOffScreen;
+    /**
+     * The position of this actor at the end of the last two simulation ticks of its {@link BaseStage}, and the number
+     * of the last one (see {@link #getInterpolatedX()}).
+     */
+    private float previousX, previousY, tickX, tickY;
+    private long lastTick = -1;
+    private boolean independentUpdate;
+    private int layer;
+    private boolean staticSprite;
+    /**
+     * The {@link StaticLayer} this actor is baked into, or {@code null} if it is drawn by itself, and its chunk there.
+     */
+    StaticLayer staticLayer;
+    StaticLayer.Chunk staticChunk;
+    /**
+     * Set while this actor waits for, or runs, its update in the {@link ParallelUpdate update phase} of its stage; the
+     * changes it makes to shared state meanwhile are deferred until the phase ends.
+     */
+    boolean scheduledUpdate;
+    private boolean movedWhileScheduled;
+    private Array<Runnable> deferred;
     
     public BaseActor() { this(0, 0); }
     
@@ -39,17 +80,311 @@ public abstract class BaseActor extends Actor {
     
     @Override
     public void act(float dt) {
+        if (sleepWhenOffScreen && isCulled()) return;
+        if (getActions().notEmpty()) markDirty();
         super.act(dt);
-        if (hasAnimation() && isVisible()) animation.act(dt);
+        if (isIndependentUpdate() && getStage() instanceof BaseStage stage)
+            stage.getParallelUpdate().schedule(this, dt);
+        else runUpdate(dt);
+    }
+    
+    /**
+     * Advances the animation of this actor and runs its {@link #update(float)}; called by {@link #act(float)}, or by
+     * the {@link ParallelUpdate update phase} of its stage, possibly on a worker thread.
+     */
+    void runUpdate(float dt) {
+        if (hasAnimation() && isVisible() && !isAnimationTickedExternally()) animation.act(dt);
         update(dt);
+        recordTick();
+    }
+    
+    /**
+     * Returns whether the {@link #update(float)} of this actor, and the ticking of its animation, touch nothing but
+     * this actor, so that they may run on a worker thread in parallel with other actors' (see
+     * {@link BaseStage#setParallelUpdate}). Such an update must not read other actors, and must make any change to the
+     * scene graph or to other actors through {@link #defer(Runnable)}. Whether in parallel or not, independent updates
+     * run in the {@link ParallelUpdate update phase} at the end of the tick, so that both give the same results.
+     *
+     * @return {@code true} if this actor {@link #setIndependentUpdate declared} its update independent, and its
+     * animation does not wait for its sprite sheet to load
+     */
+    public boolean isIndependentUpdate() {
+        return independentUpdate && staticLayer == null && (animation == null || !animation.isWaitingForTexture());
+    }
+    
+    /**
+     * @param independentUpdate
+     *         whether the update of this actor is independent (see {@link #isIndependentUpdate()}); {@code false} by
+     *         default
+     * @return this actor to allow for method chaining
+     */
+    public BaseActor setIndependentUpdate(boolean independentUpdate) {
+        this.independentUpdate = independentUpdate;
+        return this;
+    }
+    
+    /**
+     * Runs a change to the scene graph or to other actors. While this actor's update is scheduled in the
+     * {@link ParallelUpdate update phase} of its stage, the change is deferred until every update of the phase is
+     * done, and then run on the stage's thread, in the order the actors and their changes were scheduled; otherwise it
+     * runs right away.
+     *
+     * @param change
+     *         the change to run
+     */
+    protected void defer(@NotNull Runnable change) {
+        if (!scheduledUpdate) {
+            change.run();
+            return;
+        }
+        if (deferred == null) deferred = new Array<>(false, 4, Runnable.class);
+        deferred.add(change);
+    }
+    
+    /**
+     * Ends the scheduled update of this actor, applying what it deferred.
+     */
+    void applyDeferred() {
+        scheduledUpdate = false;
+        if (movedWhileScheduled) {
+            movedWhileScheduled = false;
+            gridChanged();
+        }
+        if (deferred == null || deferred.isEmpty()) return;
+        for (int i = 0; i < deferred.size; i++) deferred.get(i).run();
+        deferred.clear();
+    }
+    
+    private void recordTick() {
+        if (!(getStage() instanceof BaseStage stage)) return;
+        long tick = stage.getTick();
+        if (lastTick == tick - 1) {
+            previousX = tickX;
+            previousY = tickY;
+        } else {
+            previousX = getX();
+            previousY = getY();
+        }
+        tickX = getX();
+        tickY = getY();
+        lastTick = tick;
+    }
+    
+    /**
+     * Returns the x coordinate this actor is drawn at: between its positions at the end of the last two simulation
+     * ticks of its {@link BaseStage}, by the stage's {@link BaseStage#getInterpolationAlpha() interpolation alpha}. An
+     * actor that did not act in the last tick, or was moved since, is drawn where it is.
+     *
+     * @return the interpolated x coordinate
+     */
+    public float getInterpolatedX() {
+        return isInterpolated() ? previousX + (tickX - previousX) * ((BaseStage) getStage()).getInterpolationAlpha()
+                : getX();
+    }
+    
+    /**
+     * @return the interpolated y coordinate (see {@link #getInterpolatedX()})
+     */
+    public float getInterpolatedY() {
+        return isInterpolated() ? previousY + (tickY - previousY) * ((BaseStage) getStage()).getInterpolationAlpha()
+                : getY();
+    }
+    
+    private boolean isInterpolated() {
+        return getStage() instanceof BaseStage stage && lastTick == stage.getTick()
+                && getX() == tickX && getY() == tickY;
+    }
+    
+    /**
+     * Makes this actor drawn where it is until its next tick, e.g. after teleporting it during a tick.
+     *
+     * @return this actor to allow for method chaining
+     */
+    public BaseActor resetInterpolation() {
+        lastTick = -1;
+        return this;
     }
     
+    /**
+     * @return {@code true} if something other than {@link #act(float)} advances the animation of this actor, e.g. a
+     * {@link MovementSystem}; {@code false} by default
+     */
+    protected boolean isAnimationTickedExternally() { return false; }
+    
     @Override
     public void draw(Batch batch, float parentAlpha) {
+        if (staticLayer != null || isCulled()) return;
         super.draw(batch, parentAlpha);
         if (hasAnimation() && isVisible()) animation.draw(batch);
     }
     
+    /**
+     * @return {@code true} if this actor is added to a {@link BaseStage} and was outside its camera's view the last
+     * time the stage was drawn
+     */
+    public boolean isCulled() { return grid != null && visibleFrame != grid.getFrame(); }
+    
+    public boolean isSleepWhenOffScreen() { return sleepWhenOffScreen; }
+    
+    /**
+     * Sets whether this actor skips {@link #act(float)} altogether, actions and animation included, while it is
+     * {@link #isCulled() culled}. Off by default, since a sleeping actor stops moving and so never comes back into view
+     * by itself.
+     *
+     * @param sleepWhenOffScreen
+     *         whether this actor sleeps while off screen
+     * @return this actor to allow for method chaining
+     */
+    public BaseActor setSleepWhenOffScreen(boolean sleepWhenOffScreen) {
+        this.sleepWhenOffScreen = sleepWhenOffScreen;
+        return this;
+    }
+    
+    /**
+     * @return the layer this actor is drawn in when its stage {@link BaseStage#setRenderQueueEnabled sorts its draws}
+     */
+    public int getLayer() { return layer; }
+    
+    /**
+     * Sets the layer this actor is drawn in when its stage {@link BaseStage#setRenderQueueEnabled sorts its draws}:
+     * lower layers are drawn first, and within a layer, draws are grouped by texture. Ignored otherwise, where the
+     * scene graph decides the order.
+     *
+     * @param layer
+     *         the layer, {@code 0} by default
+     * @return this actor to allow for method chaining
+     */
+    public BaseActor setLayer(int layer) {
+        if (layer != this.layer) markDirty();
+        this.layer = layer;
+        return this;
+    }
+    
+    /**
+     * Marks the {@link BaseStage} of this actor, if any, as needing to be drawn again (see
+     * {@link BaseStage#markDirty()}).
+     */
+    public void markDirty() {
+        if (getStage() instanceof BaseStage stage) stage.markDirty();
+        if (staticLayer != null) staticLayer.invalidate(this);
+    }
+    
+    public boolean isStatic() { return staticSprite; }
+    
+    /**
+     * Sets whether this actor is static: drawn from the {@link BaseStage#getStaticLayer() static layer} of its stage,
+     * where it is baked once into GPU buffers with the other static actors of its texture, instead of being submitted
+     * to the batch every frame. Meant for backgrounds, props and decoration that rarely change; any change to a static
+     * actor rebuilds its part of the layer, except its animation advancing: a static actor shows the frame its
+     * animation showed when its part was last built. Static actors are drawn underneath every other actor of the
+     * stage, whatever their {@link #getLayer() layer} or place in the scene graph, and only while they are added
+     * directly to a {@link BaseStage}. Off by default.
+     *
+     * @param staticSprite
+     *         whether this actor is static
+     * @return this actor to allow for method chaining
+     */
+    public BaseActor setStatic(boolean staticSprite) {
+        this.staticSprite = staticSprite;
+        updateStaticLayer();
+        markDirty();
+        return this;
+    }
+    
+    private void updateStaticLayer() {
+        Stage stage = getStage();
+        if (staticSprite && stage instanceof BaseStage baseStage && getParent() == stage.getRoot())
+            baseStage.getStaticLayer().add(this);
+        else if (staticLayer != null) staticLayer.remove(this);
+    }
+    
+    @Override
+    public void setVisible(boolean visible) {
+        if (visible != isVisible()) markDirty();
+        super.setVisible(visible);
+    }
+    
+    @Override
+    public void setColor(Color color) {
+        super.setColor(color);
+        markDirty();
+    }
+    
+    @Override
+    public void setColor(float r, float g, float b, float a) {
+        super.setColor(r, g, b, a);
+        markDirty();
+    }
+    
+    @Override
+    protected void setStage(Stage stage) {
+        markDirty();
+        super.setStage(stage);
+        markDirty();
+        updateGrid();
+        updateStaticLayer();
+        syncAnimationClock();
+    }
+    
+    /**
+     * Puts the animation of this actor on the {@link BaseStage#getAnimationClock() shared clock} of its stage, if it
+     * has one, or back on its own time.
+     */
+    void syncAnimationClock() {
+        if (animation != null)
+            animation.setClock(getStage() instanceof BaseStage stage ? stage.getAnimationClock() : null);
+    }
+    
+    @Override
+    protected void setParent(Group parent) {
+        super.setParent(parent);
+        updateGrid();
+        updateStaticLayer();
+    }
+    
+    /**
+     * Indexes this actor in the {@link SpatialGrid} of its {@link BaseStage} while it is a direct child of the stage,
+     * and removes it from the grid otherwise.
+     */
+    private void updateGrid() {
+        Stage stage = getStage();
+        if (stage instanceof BaseStage baseStage && getParent() == stage.getRoot()) baseStage.getGrid().add(this);
+        else if (grid != null) grid.remove(this);
+    }
+    
+    private void gridChanged() {
+        if (grid == null) return;
+        if (scheduledUpdate) movedWhileScheduled = true;
+        else grid.update(this);
+    }
+    
+    @Override
+    protected void positionChanged() {
+        super.positionChanged();
+        markDirty();
+        gridChanged();
+    }
+    
+    @Override
+    protected void sizeChanged() {
+        super.sizeChanged();
+        markDirty();
+        gridChanged();
+    }
+    
+    @Override
+    protected void scaleChanged() {
+        super.scaleChanged();
+        markDirty();
+        gridChanged();
+    }
+    
+    @Override
+    protected void rotationChanged() {
+        super.rotationChanged();
+        markDirty();
+    }
+    
     public boolean hasAnimation() { return animation != null; }
     
     public @Nullable BaseAnimation getAnimation() { return animation; }
@@ -72,11 +407,51 @@ public abstract class BaseActor extends Actor {
     }
     
     protected BaseActor setAnimation(@NotNull BaseAnimation animation) {
+        boolean replaced = this.animation != null && this.animation != animation;
         this.animation = animation.init();
+        if (replaced) AnimationSwitchEvent.record(this, null, null, animation.getKeyFrames().length);
+        syncAnimationClock();
+        markDirty();
         return this;
     }
     
-    public void dispose() { animation.dispose(); }
+    @Override
+    public void setPool(@Nullable ActorPool<?> pool) { this.pool = pool; }
+    
+    @Override
+    public @Nullable ActorPool<?> getPool() { return pool; }
+    
+    /**
+     * {@inheritDoc} – and returns this actor to the {@link ActorPool} it was obtained from, if any.
+     */
+    @Override
+    public boolean remove() {
+        boolean removed = super.remove();
+        if (pool != null) pool.release(this);
+        return removed;
+    }
+    
+    /**
+     * Brings this actor back to its state right after construction, keeping its position, size and animation frames:
+     * clears its actions, makes it visible, resets its color, scale and rotation, and rewinds and resumes its animation.
+     * Called by {@link ActorPool} when the actor returns to it; overriders must call this method and must not allocate.
+     */
+    @Override
+    public void reset() {
+        clearActions();
+        setVisible(true);
+        setColor(Color.WHITE);
+        setScale(1);
+        setRotation(0);
+        resetInterpolation();
+        if (hasAnimation()) animation.resetAnimation().setAnimationPaused(false);
+    }
+    
+    /**
+     * Disposes the animation of this actor, releasing its reference to the sprite sheet (see
+     * {@link com.core.handler.AssetManagerHandler#releaseTexture}).
+     */
+    public void dispose() { if (hasAnimation()) animation.dispose(); }
     
     protected abstract void update(float dt);
 }
@@ -1,17 +1,16 @@
 package com.core.base.actor;
 
 import com.badlogic.gdx.InputMultiplexer;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.core.base.enums.Direction;
-import com.core.handler.AssetManagerHandler;
 import com.core.handler.InputProcessorAdapter;
+import com.core.handler.InputRouter;
+import com.core.jfr.AnimationSwitchEvent;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
-
-import static com.badlogic.gdx.graphics.Texture.TextureFilter.Linear;
+import java.util.Arrays;
 
 /**
  * @author Tamir Eliraz
@@ -19,54 +18,218 @@ import static com.badlogic.gdx.graphics.Texture.TextureFilter.Linear;
  * @see com.badlogic.gdx.scenes.scene2d.Actor
  */
 public class BaseActor4D extends BaseActor implements InputProcessorAdapter {
-    private HashMap<Direction, BaseAnimation> animationMap;
+    /**
+     * The number of rows of a four-directional sprite sheet, one per {@link Direction}.
+     */
+    private static final int ROWS = 4;
+    /**
+     * The default speed of an actor, in world units per second.
+     */
+    public static final float DEFAULT_SPEED = 100;
+    private AnimationSet animationSet;
+    /**
+     * The {@link Direction} this actor starts in and turns back to when {@link #reset() reset}.
+     */
+    private final Direction initialDirection;
     private Direction currentDirection;
+    private float speed;
+    /**
+     * The {@link MovementSystem} this actor is a view of, or {@code null} if it moves on its own.
+     */
+    MovementSystem movementSystem;
+    int movementIndex = -1;
+    /**
+     * The {@link Direction}s this actor is subscribed to on the {@link InputRouter}, or {@code null} if it takes no
+     * input.
+     */
+    private Direction[] inputDirections;
     
     public BaseActor4D(float x, float y, Stage stage, InputMultiplexer inputMultiplexer, float frameDuration,
                        String fileName, int cols,
                        Direction @NotNull ... directions) {
         super(x, y, stage);
-        Texture texture = AssetManagerHandler.getInstance()
-                .getTexture(fileName, Linear);
-        animationMap = new HashMap<>() {{
-            TextureRegion[][] map = TextureRegion.split(texture,
-                    texture.getWidth() / cols, texture.getHeight() / 4);
-            for (int dir = 0; dir < directions.length; dir++) {
-                put(directions[dir], new BaseAnimation(BaseActor4D.this, map[dir]));
-            }
-        }};
-        currentDirection = Direction.RIGHT;
-        setAnimation(animationMap.get(currentDirection));
-        if (inputMultiplexer != null) inputMultiplexer.addProcessor(this);
+        animationSet = AnimationSet.of(fileName, ROWS, cols, frameDuration, directions);
+        initialDirection = currentDirection = initialDirection(animationSet);
+        speed = DEFAULT_SPEED;
+        setAnimation(new BaseAnimation(this, frameDuration, getFrames(currentDirection))
+                .retainTexture(fileName));
+        if (inputMultiplexer == null) return;
+        inputDirections = directions.clone();
+        InputRouter.getInstance().attach(inputMultiplexer).subscribe(this, inputDirections);
+    }
+    
+    /**
+     * Constructs an actor from a sprite sheet preprocessed at build time (see {@link AnimationSet#load(String)}),
+     * whose frames, row {@link Direction}s and frame duration are read from its {@link SpriteSheetMetadata}.
+     *
+     * @param metadataFile
+     *         the internal file name of the sprite sheet's metadata ({@value SpriteSheetMetadata#FILE_EXTENSION}) file
+     */
+    public BaseActor4D(float x, float y, Stage stage, InputMultiplexer inputMultiplexer, String metadataFile) {
+        super(x, y, stage);
+        animationSet = AnimationSet.load(metadataFile);
+        initialDirection = currentDirection = initialDirection(animationSet);
+        speed = DEFAULT_SPEED;
+        setAnimation(new BaseAnimation(this, animationSet.getFrameDuration(), getFrames(currentDirection))
+                .setPremultipliedAlpha(animationSet.isPremultipliedAlpha()).retainTexture(animationSet.getFileName()));
+        if (inputMultiplexer == null) return;
+        inputDirections = Arrays.stream(Direction.values()).filter(animationSet::hasDirection).toArray(Direction[]::new);
+        InputRouter.getInstance().attach(inputMultiplexer).subscribe(this, inputDirections);
+    }
+    
+    /**
+     * @return {@link Direction#RIGHT} if a row of the set is bound to it, or else the first {@link Direction} bound to
+     * a row, or {@link Direction#RIGHT} if none is
+     */
+    private static Direction initialDirection(@NotNull AnimationSet animationSet) {
+        if (animationSet.hasDirection(Direction.RIGHT)) return Direction.RIGHT;
+        for (Direction direction : Direction.values()) if (animationSet.hasDirection(direction)) return direction;
+        return Direction.RIGHT;
+    }
+    
+    /**
+     * @return the row of frames of the given {@link Direction}, or every frame of the sprite sheet if no row is bound
+     * to it
+     */
+    private TextureRegion @NotNull [] getFrames(@NotNull Direction direction) {
+        TextureRegion[] frames = animationSet.getFrames(direction);
+        return frames == null ? animationSet.getFrames() : frames;
     }
     
     @Override
     public boolean keyDown(int keycode) {
         InputProcessorAdapter.super.keyDown(keycode);
-        try {
-            Direction temp = Direction.getByKey(keycode);
-            setAnimation(animationMap.get(temp));
-            currentDirection = temp;
-            startAnimation();
-        } catch (NullPointerException ignored) { return false; }
+        Direction temp = Direction.getByKey(keycode);
+        if (temp == null || !animationSet.hasDirection(temp)) return false;
+        setDirection(temp);
+        startAnimation();
         return false;
     }
     
+    public Direction getCurrentDirection() { return currentDirection; }
+    
+    /**
+     * Turns this actor to the given {@link Direction}, switching to its row of frames without restarting the animation.
+     *
+     * @param direction
+     *         a {@link Direction} bound to a row of this actor's sprite sheet; any other shows every frame of the sheet
+     * @return this actor to allow for method chaining
+     */
+    public BaseActor4D setDirection(@NotNull Direction direction) {
+        getAnimation().setFrames(getFrames(direction));
+        if (direction != currentDirection)
+            AnimationSwitchEvent.record(this, currentDirection.name(), direction.name(),
+                    getAnimation().getKeyFrames().length);
+        currentDirection = direction;
+        if (movementSystem != null) movementSystem.setVelocity(movementIndex, direction, speed);
+        return this;
+    }
+    
+    public float getSpeed() { return speed; }
+    
+    /**
+     * @param speed
+     *         the distance, in world units per second, this actor moves while its animation runs
+     * @return this actor to allow for method chaining
+     */
+    public BaseActor4D setSpeed(float speed) {
+        this.speed = speed;
+        if (movementSystem != null) movementSystem.setVelocity(movementIndex, currentDirection, speed);
+        return this;
+    }
+    
+    /**
+     * @return the {@link MovementSystem} this actor is a view of, or {@code null} if it moves on its own
+     */
+    public MovementSystem getMovementSystem() { return movementSystem; }
+    
+    @Override
+    public void startAnimation() {
+        super.startAnimation();
+        if (movementSystem != null) movementSystem.setMoving(movementIndex, true);
+    }
+    
+    @Override
+    public void stopAnimation() {
+        super.stopAnimation();
+        if (movementSystem != null) movementSystem.setMoving(movementIndex, false);
+    }
+    
+    @Override
+    protected void positionChanged() {
+        super.positionChanged();
+        if (movementSystem != null && !movementSystem.isWritingBack())
+            movementSystem.setPosition(movementIndex, getX(), getY());
+    }
+    
+    /**
+     * {@inheritDoc} An actor still showing the placeholder of its sprite sheet updates serially until it loads.
+     */
+    @Override
+    public boolean isIndependentUpdate() { return super.isIndependentUpdate() && !animationSet.isPlaceholder(); }
+    
+    @Override
+    protected boolean isAnimationTickedExternally() { return movementSystem != null; }
+    
+    public AnimationSet getAnimationSet() { return animationSet; }
+    
+    private void resolveAnimationSet() {
+        AnimationSet resolved = animationSet.resolve();
+        if (resolved == animationSet) return;
+        animationSet = resolved;
+        setDirection(currentDirection);
+        getAnimation().init();
+    }
+    
     @Override
     public boolean keyUp(int keycode) {
         stopAnimation();
         return false;
     }
     
+    /**
+     * {@inheritDoc} – and unsubscribes this actor from the {@link InputRouter} and its {@link MovementSystem}
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        InputRouter.getInstance().unsubscribe(this);
+        if (movementSystem != null) movementSystem.remove(this);
+    }
+    
+    /**
+     * {@inheritDoc} Also unsubscribes this actor from its keys on the {@link InputRouter} while it is back in the pool,
+     * so that free actors ignore the input, and subscribes it again when it is obtained.
+     */
+    @Override
+    public void setPool(@Nullable ActorPool<?> pool) {
+        super.setPool(pool);
+        if (inputDirections == null) return;
+        if (pool == null) InputRouter.getInstance().unsubscribe(this, inputDirections);
+        else InputRouter.getInstance().subscribe(this, inputDirections);
+    }
+    
+    /**
+     * {@inheritDoc} Also turns this actor back to the {@link Direction} it started in and removes it from its
+     * {@link MovementSystem}; its speed is kept.
+     */
+    @Override
+    public void reset() {
+        if (movementSystem != null) movementSystem.remove(this);
+        super.reset();
+        setDirection(initialDirection);
+    }
+    
     @Override
     protected void update(float dt) {
-        int N = 100;
+        if (animationSet.isPlaceholder()) resolveAnimationSet();
+        if (movementSystem != null) return;
         if (hasAnimation() && !getAnimation().isAnimationPaused()) {
             switch (currentDirection) {
-                case RIGHT -> setX(getX() + N * dt);
-                case LEFT -> setX(getX() - N * dt);
-                case UP -> setY(getY() + N * dt);
-                case DOWN -> setY(getY() - N * dt);
+                case RIGHT -> setX(getX() + speed * dt);
+                case LEFT -> setX(getX() - speed * dt);
+                case UP -> setY(getY() + speed * dt);
+                case DOWN -> setY(getY() - speed * dt);
             }
         }
     }
@@ -1,11 +1,11 @@
 package com.core.base.actor;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.utils.Array;
+import com.core.base.game.BaseStage;
 import com.core.handler.AssetManagerHandler;
 import org.jetbrains.annotations.NotNull;
 
@@ -20,8 +20,34 @@ public class BaseAnimation extends Animation<TextureRegion> {
      * This actor is used to display the animated frames on the screen.
      */
     private BaseActor actor;
+    /**
+     * The {@link AnimationSet} this animation was cut from when built from a sprite sheet file, or {@code null}.
+     */
+    private AnimationSet animationSet;
+    /**
+     * The sprite sheet file this animation holds a reference to (see {@link AssetManagerHandler#retainTexture}),
+     * released by {@link #dispose()}.
+     */
+    private String textureFile;
     private float elapsedTime;
     private boolean animationPaused;
+    /**
+     * The shared clock this animation reads its time from, or {@code null} if it counts its own
+     * {@link #elapsedTime}; on a clock, the animation stores only the clock time it started at and, while paused, the
+     * clock time it was paused at.
+     */
+    private AnimationClock clock;
+    private double startTime, pauseTime;
+    /**
+     * The index of the frame shown the last time this animation {@link #act acted}, to mark the actor dirty when it
+     * changes (see {@link BaseActor#markDirty()}); only tracked while the stage is
+     * {@link BaseStage#isTrackingChanges() tracking changes}.
+     */
+    private int frameIndex;
+    /**
+     * Whether the frames have their colors premultiplied by their alpha (see {@link #setPremultipliedAlpha}).
+     */
+    private boolean premultipliedAlpha;
     /**
      * The default duration for each frame in seconds if not specified.
      * This value is used when creating animations that do not provide a custom frame duration.
@@ -63,15 +89,31 @@ public class BaseAnimation extends Animation<TextureRegion> {
     public BaseAnimation(@NotNull BaseActor actor, String fileName,
                          int rows, int framesPerRow,
                          float frameDuration, boolean loop) {
-        super(frameDuration, new Array<>() {{
-            Texture texture = AssetManagerHandler.getInstance().getTexture(fileName, Texture.TextureFilter.Linear);
-            for (TextureRegion[] row : TextureRegion.split(texture,
-                    texture.getWidth() / framesPerRow,
-                    texture.getHeight() / rows))
-                for (TextureRegion frame : row)
-                    add(frame);
-        }});
+        this(actor, AnimationSet.of(fileName, rows, framesPerRow, frameDuration), loop);
+    }
+    
+    /**
+     * Constructs a {@code BaseAnimation} for a specified {@link BaseActor} from a sprite sheet preprocessed at build
+     * time, playing all of its frames, whose rectangles and duration are read from the sheet's
+     * {@link SpriteSheetMetadata} (see {@link AnimationSet#load(String)}).
+     *
+     * @param actor
+     *         the {@link BaseActor} for which this animation is applied
+     * @param metadataFile
+     *         the internal file name of the sprite sheet's metadata ({@value SpriteSheetMetadata#FILE_EXTENSION}) file
+     * @param loop
+     *         whether the animation should loop
+     */
+    public BaseAnimation(@NotNull BaseActor actor, String metadataFile, boolean loop) {
+        this(actor, AnimationSet.load(metadataFile), loop);
+    }
+    
+    private BaseAnimation(@NotNull BaseActor actor, @NotNull AnimationSet animationSet, boolean loop) {
+        super(animationSet.getFrameDuration(), animationSet.getFrames());
         this.actor = actor;
+        this.animationSet = animationSet;
+        premultipliedAlpha = animationSet.isPremultipliedAlpha();
+        retainTexture(animationSet.getFileName());
         if (loop) setLoop();
         else setNormal();
         init();
@@ -155,7 +197,8 @@ public class BaseAnimation extends Animation<TextureRegion> {
      * {@link TextureRegion} frames for the animation.
      *
      * <p>Each frame will be displayed in the order they are provided. The animation will play
-     * sequentially through the frames.</p>
+     * sequentially through the frames. The given array is used as is (not copied), so it may be shared between
+     * animations, e.g. one taken from an {@link AnimationSet}.</p>
      *
      * @param actor
      *         the {@link BaseActor} for which this animation is applied
@@ -165,10 +208,7 @@ public class BaseAnimation extends Animation<TextureRegion> {
      *         variable number of {@link TextureRegion} frames to be used in the animation
      */
     public BaseAnimation(@NotNull BaseActor actor, float frameDuration, TextureRegion @NotNull ... frames) {
-        super(frameDuration, new Array<>() {{
-            for (TextureRegion frame : frames)
-                add(frame);
-        }});
+        super(frameDuration, frames);
         this.actor = actor;
         setLoop();
         init();
@@ -197,24 +237,141 @@ public class BaseAnimation extends Animation<TextureRegion> {
     }
     
     public void act(float dt) {
-        if (!isAnimationPaused()) elapsedTime += dt;
+        if (animationSet != null && animationSet.isPlaceholder()) resolveAnimationSet();
+        if (isAnimationPaused()) return;
+        if (clock == null) elapsedTime += dt;
+        if (actor.isStatic() || !(actor.getStage() instanceof BaseStage stage) || !stage.isTrackingChanges()) return;
+        int index = getKeyFrameIndex(getElapsedTime());
+        if (index != frameIndex) {
+            frameIndex = index;
+            actor.markDirty();
+        }
+    }
+    
+    /**
+     * @return {@code true} if this animation still shows the placeholder of a sprite sheet that is loading
+     */
+    boolean isWaitingForTexture() { return animationSet != null && animationSet.isPlaceholder(); }
+    
+    private void resolveAnimationSet() {
+        AnimationSet resolved = animationSet.resolve();
+        if (resolved == animationSet) return;
+        animationSet = resolved;
+        premultipliedAlpha = resolved.isPremultipliedAlpha();
+        setFrames(resolved.getFrames());
+        init();
     }
     
+    /**
+     * Draws the current frame of this animation at its actor, or queues it in the {@link RenderQueue} of the actor's
+     * {@link BaseStage}, if enabled. Frames with {@link #isPremultipliedAlpha() premultiplied alpha} are drawn with the
+     * blend function {@code (GL_ONE, GL_ONE_MINUS_SRC_ALPHA)}: within a stage, it is switched only when it differs from
+     * the previous draw's (see {@link BaseStage#setPremultipliedBlend}); elsewhere the batch's blend function is
+     * restored after each draw.
+     *
+     * @param batch
+     *         the batch the actor is drawn with
+     */
     public void draw(@NotNull Batch batch) {
         Color color = actor.getColor();
-        batch.setColor(color.r, color.g, color.b, color.a);
-        batch.draw(getKeyFrame(elapsedTime),
-                actor.getX(), actor.getY(), actor.getOriginX(), actor.getOriginY(),
+        float packedColor = premultipliedAlpha
+                ? Color.toFloatBits(color.r * color.a, color.g * color.a, color.b * color.a, color.a)
+                : color.toFloatBits();
+        TextureRegion frame = getKeyFrame(getElapsedTime());
+        float x = actor.getInterpolatedX(), y = actor.getInterpolatedY();
+        if (actor.getStage() instanceof BaseStage stage && stage.getRenderQueue() != null
+                && stage.getRenderQueue().add(batch, frame, actor.getLayer(), packedColor, premultipliedAlpha,
+                x, y, actor.getOriginX(), actor.getOriginY(), actor.getWidth(), actor.getHeight(),
+                actor.getScaleX(), actor.getScaleY(), actor.getRotation()))
+            return;
+        batch.setPackedColor(packedColor);
+        if (actor.getStage() instanceof BaseStage stage && stage.setPremultipliedBlend(batch, premultipliedAlpha)
+                || !premultipliedAlpha) {
+            batch.draw(frame, x, y, actor.getOriginX(), actor.getOriginY(),
+                    actor.getWidth(), actor.getHeight(), actor.getScaleX(), actor.getScaleY(), actor.getRotation());
+            return;
+        }
+        int srcFunc = batch.getBlendSrcFunc(), dstFunc = batch.getBlendDstFunc();
+        int srcFuncAlpha = batch.getBlendSrcFuncAlpha(), dstFuncAlpha = batch.getBlendDstFuncAlpha();
+        batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        batch.draw(frame, x, y, actor.getOriginX(), actor.getOriginY(),
                 actor.getWidth(), actor.getHeight(), actor.getScaleX(), actor.getScaleY(), actor.getRotation());
+        batch.setBlendFunctionSeparate(srcFunc, dstFunc, srcFuncAlpha, dstFuncAlpha);
     }
     
-    public BaseAnimation resetAnimation() { elapsedTime = 0; return this; }
+    public boolean isPremultipliedAlpha() { return premultipliedAlpha; }
+    
+    /**
+     * Sets whether the frames of this animation have their colors premultiplied by their alpha, so that they are drawn
+     * with the blend function {@code (GL_ONE, GL_ONE_MINUS_SRC_ALPHA)} and the actor's color premultiplied as well.
+     * Set from the {@link SpriteSheetMetadata} of animations built from a preprocessed sheet. Each switch between
+     * premultiplied and straight draws flushes the batch; a {@link BaseStage} switches only between consecutive draws
+     * that differ, and its {@link BaseStage#setRenderQueueEnabled render queue} also groups them by texture.
+     *
+     * @param premultipliedAlpha
+     *         whether the colors of the frames are premultiplied by their alpha
+     * @return this animation to allow for method chaining
+     */
+    public BaseAnimation setPremultipliedAlpha(boolean premultipliedAlpha) {
+        this.premultipliedAlpha = premultipliedAlpha;
+        return this;
+    }
+    
+    public BaseAnimation resetAnimation() { return setElapsedTime(0); }
+    
+    public float getElapsedTime() {
+        if (clock == null) return elapsedTime;
+        return (float) ((animationPaused ? pauseTime : clock.getTime()) - startTime);
+    }
+    
+    /**
+     * Sets the time into this animation. For the animation of an actor in a {@link MovementSystem}, the time is also
+     * written to the system, which advances it from there on.
+     *
+     * @param elapsedTime
+     *         the time in seconds since the animation started
+     * @return this animation to allow for method chaining
+     */
+    public BaseAnimation setElapsedTime(float elapsedTime) {
+        if (clock == null) this.elapsedTime = elapsedTime;
+        else startTime = (animationPaused ? pauseTime : clock.getTime()) - elapsedTime;
+        if (actor instanceof BaseActor4D body && body.movementSystem != null && body.getAnimation() == this
+                && !body.movementSystem.isWritingBack())
+            body.movementSystem.setAnimationTime(body.movementIndex, elapsedTime);
+        actor.markDirty();
+        return this;
+    }
+    
+    /**
+     * @return the shared clock this animation reads its time from, or {@code null} if it counts its own time in
+     * {@link #act(float)}
+     */
+    public AnimationClock getClock() { return clock; }
+    
+    /**
+     * Puts this animation on the given shared clock, or back on its own time, keeping its elapsed time.
+     *
+     * @param clock
+     *         the shared clock, or {@code null}
+     * @return this animation to allow for method chaining
+     */
+    public BaseAnimation setClock(AnimationClock clock) {
+        if (clock == this.clock) return this;
+        float elapsed = getElapsedTime();
+        this.clock = clock;
+        if (clock != null) pauseTime = clock.getTime();
+        return setElapsedTime(elapsed);
+    }
     
     public BaseAnimation startAnimation() { return setAnimationPaused(false); }
     
     public BaseAnimation stopAnimation() { return setAnimationPaused(true); }
     
     public BaseAnimation setAnimationPaused(boolean animationPaused) {
+        if (clock != null && animationPaused != this.animationPaused) {
+            if (animationPaused) pauseTime = clock.getTime();
+            else startTime += clock.getTime() - pauseTime;
+        }
         this.animationPaused = animationPaused;
         return this;
     }
@@ -230,12 +387,45 @@ public class BaseAnimation extends Animation<TextureRegion> {
     
     public BaseActor getActor() { return actor; }
     
+    /**
+     * Replaces the frames of this animation, keeping its playback state. The given array is used as is (not copied).
+     *
+     * @param frames
+     *         the new frames of the animation
+     * @return this animation to allow for method chaining
+     */
+    public BaseAnimation setFrames(TextureRegion @NotNull [] frames) {
+        setKeyFrames(frames);
+        actor.markDirty();
+        return this;
+    }
+    
     public BaseAnimation setLoop() { setPlayMode(PlayMode.LOOP); return this; }
     
     public BaseAnimation setNormal() { setPlayMode(PlayMode.NORMAL); return this; }
     
-    public void dispose() {
+    /**
+     * Holds a reference to the given sprite sheet file for the lifetime of this animation, so that its texture is not
+     * evicted while it is drawn. A previously held reference is released.
+     *
+     * @param fileName
+     *         the file name of the sprite sheet this animation is drawn from
+     * @return this animation to allow for method chaining
+     */
+    BaseAnimation retainTexture(String fileName) {
+        AssetManagerHandler.getInstance().retainTexture(fileName);
+        if (textureFile != null) AssetManagerHandler.getInstance().releaseTexture(textureFile);
+        textureFile = fileName;
+        return this;
+    }
     
+    /**
+     * Releases the reference this animation holds to its sprite sheet, if any.
+     */
+    public void dispose() {
+        if (textureFile == null) return;
+        AssetManagerHandler.getInstance().releaseTexture(textureFile);
+        textureFile = null;
     }
     
 }
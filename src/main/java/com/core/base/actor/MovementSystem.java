@@ -0,0 +1,164 @@
+package com.core.base.actor;
+
+import com.core.base.enums.Direction;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * <p>A data-oriented movement and animation system for large populations of {@link BaseActor4D}s. The position,
+ * velocity, direction and animation time of every actor in the system live in primitive arrays and are advanced
+ * together by one tight, branch-free loop in {@link #update(float)}; only actors that moved get their position written
+ * back, and only visible ones get their animation time.</p>
+ * <p>An actor {@link #add(BaseActor4D) added} to the system becomes a thin view over it: its movement and animation
+ * clock are no longer advanced by its own {@link BaseActor#act(float)}, and its {@link BaseActor4D#setDirection},
+ * {@link BaseActor4D#setSpeed}, start, stop, position and {@link BaseAnimation#setElapsedTime animation time} changes
+ * are written through to the arrays.
+ * {@link com.core.base.game.BaseScreen BaseScreen} updates its system before acting the stage.</p>
+ *
+ * @author Tamir Eliraz
+ * @see BaseActor4D
+ */
+public class MovementSystem {
+    private static final int INITIAL_CAPACITY = 64;
+    private float[] x, y, vx, vy, animationTime;
+    /**
+     * {@code 1} for actors whose animation is running (and therefore move), {@code 0} for paused ones; kept as a float
+     * so that {@link #update(float)} multiplies by it instead of branching.
+     */
+    private float[] moving;
+    private BaseActor4D[] actors;
+    private int size;
+    private boolean writingBack;
+    
+    public MovementSystem() {
+        x = new float[INITIAL_CAPACITY];
+        y = new float[INITIAL_CAPACITY];
+        vx = new float[INITIAL_CAPACITY];
+        vy = new float[INITIAL_CAPACITY];
+        animationTime = new float[INITIAL_CAPACITY];
+        moving = new float[INITIAL_CAPACITY];
+        actors = new BaseActor4D[INITIAL_CAPACITY];
+    }
+    
+    /**
+     * Adds an actor to this system, copying its current state into the arrays. An actor already in another system is
+     * moved to this one.
+     *
+     * @param actor
+     *         the actor to add
+     * @return this system to allow for method chaining
+     */
+    public MovementSystem add(@NotNull BaseActor4D actor) {
+        if (actor.movementSystem == this) return this;
+        if (actor.movementSystem != null) actor.movementSystem.remove(actor);
+        if (size == actors.length) grow(size * 2);
+        int index = size++;
+        actors[index] = actor;
+        actor.movementSystem = this;
+        actor.movementIndex = index;
+        x[index] = actor.getX();
+        y[index] = actor.getY();
+        setVelocity(index, actor.getCurrentDirection(), actor.getSpeed());
+        BaseAnimation animation = actor.getAnimation();
+        moving[index] = animation != null && !animation.isAnimationPaused() ? 1 : 0;
+        animationTime[index] = animation != null ? animation.getElapsedTime() : 0;
+        return this;
+    }
+    
+    /**
+     * Removes an actor from this system, writing its state back to it; the actor moves on its own again.
+     *
+     * @param actor
+     *         the actor to remove
+     * @return this system to allow for method chaining
+     */
+    public MovementSystem remove(@NotNull BaseActor4D actor) {
+        if (actor.movementSystem != this) return this;
+        int index = actor.movementIndex;
+        writeBack(index, true, true);
+        int last = --size;
+        if (index != last) {
+            x[index] = x[last];
+            y[index] = y[last];
+            vx[index] = vx[last];
+            vy[index] = vy[last];
+            animationTime[index] = animationTime[last];
+            moving[index] = moving[last];
+            actors[index] = actors[last];
+            actors[index].movementIndex = index;
+        }
+        actors[last] = null;
+        actor.movementSystem = null;
+        actor.movementIndex = -1;
+        return this;
+    }
+    
+    public int size() { return size; }
+    
+    /**
+     * Advances every actor in this system by {@code dt} seconds, then writes the new positions back to the actors
+     * that moved and the new animation times to the visible ones.
+     *
+     * @param dt
+     *         the time in seconds since the last update
+     */
+    public void update(float dt) {
+        float[] x = this.x, y = this.y, vx = this.vx, vy = this.vy, time = animationTime, moving = this.moving;
+        for (int i = 0, n = size; i < n; i++) {
+            float step = moving[i] * dt;
+            x[i] += vx[i] * step;
+            y[i] += vy[i] * step;
+            time[i] += step;
+        }
+        writingBack = true;
+        try {
+            for (int i = 0, n = size; i < n; i++) {
+                if (moving[i] == 0) continue;
+                writeBack(i, true, actors[i].isVisible());
+            }
+        } finally {
+            writingBack = false;
+        }
+    }
+    
+    private void writeBack(int index, boolean position, boolean animation) {
+        BaseActor4D actor = actors[index];
+        if (position) actor.setPosition(x[index], y[index]);
+        if (animation && actor.hasAnimation()) actor.getAnimation().setElapsedTime(animationTime[index]);
+    }
+    
+    boolean isWritingBack() { return writingBack; }
+    
+    void setPosition(int index, float x, float y) {
+        this.x[index] = x;
+        this.y[index] = y;
+    }
+    
+    void setVelocity(int index, @NotNull Direction direction, float speed) {
+        vx[index] = switch (direction) {
+            case RIGHT -> speed;
+            case LEFT -> -speed;
+            default -> 0;
+        };
+        vy[index] = switch (direction) {
+            case UP -> speed;
+            case DOWN -> -speed;
+            default -> 0;
+        };
+    }
+    
+    void setMoving(int index, boolean moving) { this.moving[index] = moving ? 1 : 0; }
+    
+    void setAnimationTime(int index, float animationTime) { this.animationTime[index] = animationTime; }
+    
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        animationTime = Arrays.copyOf(animationTime, capacity);
+        moving = Arrays.copyOf(moving, capacity);
+        actors = Arrays.copyOf(actors, capacity);
+    }
+}
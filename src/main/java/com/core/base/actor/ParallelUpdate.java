@@ -0,0 +1,123 @@
+package com.core.base.actor;
+
+import com.badlogic.gdx.utils.Array;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>The update phase of a {@link com.core.base.game.BaseStage BaseStage}, which ends every tick. While the stage acts,
+ * every {@link BaseActor} that {@link BaseActor#setIndependentUpdate declared its update independent} runs only its
+ * actions and is scheduled here; {@link #run()} then advances the animations and runs {@link BaseActor#update(float)}
+ * of all the scheduled actors, in chunks on a {@link ForkJoinPool} if {@link #setParallel parallel}, or else one after
+ * the other on the calling thread, and finally, on the calling thread and in the order the actors were scheduled,
+ * applies what they {@link BaseActor#defer deferred} and moves them in the stage's {@link SpatialGrid}.</p>
+ * <p>Serial and parallel runs share this ordering: within a tick, the actions of every actor, and the updates of the
+ * actors that are not independent, see the independent actors as they were before their update, and the changes an
+ * independent update deferred are applied after every other actor acted. Since independent updates touch nothing but
+ * their own actor, the results are the same either way, whatever the pool and the chunk size.</p>
+ *
+ * @author Tamir Eliraz
+ * @see BaseActor#isIndependentUpdate()
+ */
+public class ParallelUpdate {
+    /**
+     * The default number of actors updated by a single task.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+    private final Array<BaseActor> scheduled;
+    private boolean parallel;
+    private ForkJoinPool pool;
+    private int chunkSize;
+    private float dt;
+    
+    @SuppressWarnings("serial")
+    private final class Chunk extends RecursiveAction {
+        private final int from, to;
+        
+        private Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Chunk(from, middle), new Chunk(middle, to));
+                return;
+            }
+            BaseActor[] actors = scheduled.items;
+            for (int i = from; i < to; i++) actors[i].runUpdate(dt);
+        }
+    }
+    
+    public ParallelUpdate() { this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE); }
+    
+    /**
+     * @param pool
+     *         the pool running the updates
+     * @param chunkSize
+     *         the number of actors updated by a single task
+     */
+    public ParallelUpdate(@NotNull ForkJoinPool pool, int chunkSize) {
+        scheduled = new Array<>(true, 64, BaseActor.class);
+        parallel = true;
+        setPool(pool);
+        setChunkSize(chunkSize);
+    }
+    
+    public boolean isParallel() { return parallel; }
+    
+    /**
+     * @param parallel
+     *         whether the scheduled updates run on the {@link #getPool() pool}, or one after the other on the thread
+     *         calling {@link #run()}; {@code true} by default
+     * @return this phase to allow for method chaining
+     */
+    public ParallelUpdate setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+    
+    public ForkJoinPool getPool() { return pool; }
+    
+    public ParallelUpdate setPool(@NotNull ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+    
+    public int getChunkSize() { return chunkSize; }
+    
+    public ParallelUpdate setChunkSize(int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        this.chunkSize = chunkSize;
+        return this;
+    }
+    
+    /**
+     * Schedules the update of an actor for the next {@link #run()}.
+     */
+    void schedule(@NotNull BaseActor actor, float dt) {
+        this.dt = dt;
+        actor.scheduledUpdate = true;
+        scheduled.add(actor);
+    }
+    
+    /**
+     * Updates every scheduled actor, in parallel if {@link #isParallel()}, then applies their deferred changes in the
+     * order they were scheduled.
+     */
+    public void run() {
+        if (scheduled.isEmpty()) return;
+        try {
+            if (parallel) pool.invoke(new Chunk(0, scheduled.size));
+            else for (int i = 0, n = scheduled.size; i < n; i++) scheduled.items[i].runUpdate(dt);
+        } finally {
+            BaseActor[] actors = scheduled.items;
+            for (int i = 0, n = scheduled.size; i < n; i++) actors[i].applyDeferred();
+            scheduled.clear();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.core.base.actor;
+
+import com.badlogic.gdx.utils.Pool;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An actor that can be recycled by an {@link ActorPool}. Its {@link #reset()} must bring it back to the state it had
+ * right after construction, without allocating, so that it can be handed out again; and its
+ * {@link com.badlogic.gdx.scenes.scene2d.Actor#remove() remove()} must return it to the pool it was obtained from.
+ *
+ * @author Tamir Eliraz
+ * @see ActorPool
+ */
+public interface PoolableActor extends Pool.Poolable {
+    /**
+     * Called by {@link ActorPool} when this actor is obtained from it, and with {@code null} when it is returned.
+     *
+     * @param pool
+     *         the pool to return this actor to on removal, or {@code null}
+     */
+    void setPool(@Nullable ActorPool<?> pool);
+    
+    /**
+     * @return the pool this actor will return to on removal, or {@code null} if it is not pooled
+     */
+    @Nullable ActorPool<?> getPool();
+}
@@ -0,0 +1,160 @@
+package com.core.base.actor;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.Sort;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * <p>A queue of sprite draws, collected from {@link BaseAnimation#draw(Batch)} while a
+ * {@link com.core.base.game.BaseStage BaseStage} is drawn and submitted to its {@link Batch} at the end, sorted by
+ * {@link BaseActor#getLayer() layer} and, within a layer, by {@link Texture}, so that the batch flushes once per
+ * texture of each layer instead of on every texture change of the scene graph. The sort is stable: draws of the same
+ * layer and texture keep their scene-graph order.</p>
+ * <p>The draws of actors inside a {@link com.badlogic.gdx.scenes.scene2d.Group Group} that scales or rotates them are
+ * not queued, but drawn right away; groups that only translate them are queued like the rest. The stage submits the
+ * draws queued so far before a group that cannot be queued, and before any other actor that does not draw through
+ * the queue, so that the scene-graph order between them holds. Commands are reused from frame to frame, so a
+ * warmed-up queue allocates nothing.</p>
+ *
+ * @author Tamir Eliraz
+ * @see com.core.base.game.BaseStage#setRenderQueueEnabled
+ */
+public class RenderQueue {
+    private static final Comparator<Command> ORDER = (a, b) -> {
+        if (a.layer != b.layer) return Integer.compare(a.layer, b.layer);
+        if (a.texture != b.texture) return Integer.compare(a.texture, b.texture);
+        return Integer.compare(a.sequence, b.sequence);
+    };
+    private final Sort sort;
+    /**
+     * The order in which each texture was first queued this frame, used as its sort key.
+     */
+    private final ObjectIntMap<Texture> textures;
+    private Command[] commands;
+    private int size;
+    private boolean collecting;
+    private int textureSwitches;
+    
+    private static final class Command {
+        private TextureRegion region;
+        private float x, y, originX, originY, width, height, scaleX, scaleY, rotation, color;
+        private int layer, texture, sequence;
+        private boolean premultipliedAlpha;
+    }
+    
+    public RenderQueue() {
+        sort = new Sort();
+        textures = new ObjectIntMap<>();
+        commands = new Command[0];
+    }
+    
+    /**
+     * Starts collecting the draws of a frame.
+     */
+    public void begin() {
+        size = 0;
+        textures.clear();
+        textureSwitches = 0;
+        collecting = true;
+    }
+    
+    /**
+     * Collects draws again after a {@link #flush}, within the same frame.
+     */
+    public void resume() { collecting = true; }
+    
+    /**
+     * Queues a draw, unless the queue is not collecting or the batch's transform does more than translate. The
+     * translation is added to the position of the draw, so that draws of actors in translated groups, such as the body
+     * parts of a {@link com.core.base.group.BaseGroup BaseGroup}, are queued too.
+     *
+     * @return {@code true} if the draw was queued, {@code false} if the caller should draw it right away
+     */
+    boolean add(@NotNull Batch batch, @NotNull TextureRegion region, int layer, float color, boolean premultipliedAlpha,
+                float x, float y, float originX, float originY, float width, float height,
+                float scaleX, float scaleY, float rotation) {
+        float[] transform = batch.getTransformMatrix().val;
+        if (!collecting || !isTranslation(transform)) return false;
+        if (size == commands.length) {
+            commands = Arrays.copyOf(commands, Math.max(16, size * 2));
+            for (int i = size; i < commands.length; i++) commands[i] = new Command();
+        }
+        Command command = commands[size];
+        command.region = region;
+        command.layer = layer;
+        command.texture = textures.get(region.getTexture(), textures.size);
+        if (command.texture == textures.size) textures.put(region.getTexture(), command.texture);
+        command.sequence = size++;
+        command.color = color;
+        command.premultipliedAlpha = premultipliedAlpha;
+        command.x = x + transform[Matrix4.M03];
+        command.y = y + transform[Matrix4.M13];
+        command.originX = originX;
+        command.originY = originY;
+        command.width = width;
+        command.height = height;
+        command.scaleX = scaleX;
+        command.scaleY = scaleY;
+        command.rotation = rotation;
+        return true;
+    }
+    
+    /**
+     * Sorts the draws collected since {@link #begin()} or {@link #resume()} and submits them to the batch, which must
+     * be drawing, then stops collecting. The translation of the batch's transform, if any, is taken off the queued
+     * positions.
+     */
+    public void flush(@NotNull Batch batch) {
+        collecting = false;
+        float[] transform = batch.getTransformMatrix().val;
+        float offsetX = transform[Matrix4.M03], offsetY = transform[Matrix4.M13];
+        sort.sort(commands, ORDER, 0, size);
+        float previousColor = batch.getPackedColor();
+        int srcFunc = batch.getBlendSrcFunc(), dstFunc = batch.getBlendDstFunc();
+        int srcFuncAlpha = batch.getBlendSrcFuncAlpha(), dstFuncAlpha = batch.getBlendDstFuncAlpha();
+        boolean premultipliedAlpha = false;
+        Texture texture = null;
+        for (int i = 0; i < size; i++) {
+            Command command = commands[i];
+            if (command.region.getTexture() != texture) {
+                texture = command.region.getTexture();
+                textureSwitches++;
+            }
+            if (command.premultipliedAlpha != premultipliedAlpha) {
+                premultipliedAlpha = command.premultipliedAlpha;
+                if (premultipliedAlpha) batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+                else batch.setBlendFunctionSeparate(srcFunc, dstFunc, srcFuncAlpha, dstFuncAlpha);
+            }
+            batch.setPackedColor(command.color);
+            batch.draw(command.region, command.x - offsetX, command.y - offsetY, command.originX, command.originY,
+                    command.width, command.height, command.scaleX, command.scaleY, command.rotation);
+            command.region = null;
+        }
+        if (premultipliedAlpha) batch.setBlendFunctionSeparate(srcFunc, dstFunc, srcFuncAlpha, dstFuncAlpha);
+        batch.setPackedColor(previousColor);
+        size = 0;
+    }
+    
+    /**
+     * @return how many times the texture changed between the draws submitted by the flushes since the last
+     * {@link #begin()}
+     */
+    public int getTextureSwitches() { return textureSwitches; }
+    
+    /**
+     * @return {@code true} if the matrix only translates, in x and y
+     */
+    private static boolean isTranslation(float @NotNull [] matrix) {
+        for (int i = 0; i < 16; i++)
+            if (i != Matrix4.M03 && i != Matrix4.M13 && matrix[i] != (i % 5 == 0 ? 1 : 0)) return false;
+        return true;
+    }
+}
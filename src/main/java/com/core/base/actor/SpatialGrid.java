@@ -0,0 +1,161 @@
+package com.core.base.actor;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>A uniform spatial hash grid of {@link BaseActor}s, used by {@link com.core.base.game.BaseStage BaseStage} to cull
+ * the actors outside the camera's view. Every actor is kept in the cell of its position, and moved between cells
+ * incrementally whenever its position changes; {@link #markVisible} then stamps the actors of every cell intersecting
+ * a rectangle, and {@link BaseActor#isCulled()} compares an actor's stamp with the grid's.</p>
+ * <p>Only actors added directly to a {@link com.core.base.game.BaseStage BaseStage} are indexed; actors inside a
+ * {@link com.badlogic.gdx.scenes.scene2d.Group Group} are drawn with their group.</p>
+ *
+ * @author Tamir Eliraz
+ */
+public class SpatialGrid {
+    /**
+     * The default width and height of a cell, in world units.
+     */
+    public static final float DEFAULT_CELL_SIZE = 256;
+    private final float cellSize;
+    private final LongMap<Array<BaseActor>> cells;
+    private int size;
+    /**
+     * The largest distance an indexed actor reaches from its position, whatever its size, scale, origin and rotation;
+     * {@link #markVisible} widens the rectangle by it, so that no partly visible actor is culled.
+     */
+    private float maxExtent;
+    private long frame;
+    private int visibleCount;
+    
+    public SpatialGrid() { this(DEFAULT_CELL_SIZE); }
+    
+    /**
+     * @param cellSize
+     *         the width and height of a cell, in world units; about the size of a few actors works best
+     */
+    public SpatialGrid(float cellSize) {
+        if (cellSize <= 0) throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        this.cellSize = cellSize;
+        cells = new LongMap<>();
+    }
+    
+    public float getCellSize() { return cellSize; }
+    
+    /**
+     * @return how many actors are indexed
+     */
+    public int size() { return size; }
+    
+    /**
+     * @return the number of the last {@link #markVisible} pass
+     */
+    public long getFrame() { return frame; }
+    
+    /**
+     * @return how many actors the last {@link #markVisible} pass stamped as visible
+     */
+    public int getVisibleCount() { return visibleCount; }
+    
+    /**
+     * Indexes an actor, or moves it to the cell of its current position if it is already indexed. An actor indexed
+     * by another grid is moved to this one. A newly indexed actor counts as visible until the next pass.
+     *
+     * @param actor
+     *         the actor to index
+     */
+    public void add(@NotNull BaseActor actor) {
+        if (actor.grid != this) {
+            if (actor.grid != null) actor.grid.remove(actor);
+            actor.grid = this;
+            actor.visibleFrame = frame;
+            insert(actor, key(actor));
+            size++;
+        }
+        update(actor);
+    }
+    
+    /**
+     * Removes an actor from this grid; a removed actor is never culled.
+     *
+     * @param actor
+     *         the indexed actor
+     */
+    public void remove(@NotNull BaseActor actor) {
+        if (actor.grid != this) return;
+        extract(actor);
+        actor.grid = null;
+        size--;
+    }
+    
+    /**
+     * Moves an indexed actor to the cell of its current position, after it moved or changed its size.
+     */
+    void update(@NotNull BaseActor actor) {
+        maxExtent = Math.max(maxExtent, extent(actor));
+        long key = key(actor);
+        if (key == actor.cellKey) return;
+        extract(actor);
+        insert(actor, key);
+    }
+    
+    /**
+     * Stamps every actor in a cell intersecting the given rectangle as visible, and every other one as culled.
+     *
+     * @return how many actors were stamped as visible
+     */
+    public int markVisible(float minX, float minY, float maxX, float maxY) {
+        frame++;
+        visibleCount = 0;
+        int fromX = cell(minX - maxExtent), toX = cell(maxX + maxExtent);
+        int fromY = cell(minY - maxExtent), toY = cell(maxY + maxExtent);
+        long columns = (long) toX - fromX + 1, rows = (long) toY - fromY + 1;
+        if (columns > cells.size || rows > cells.size || columns * rows > cells.size) {
+            for (LongMap.Entry<Array<BaseActor>> entry : cells.entries()) {
+                int x = (int) (entry.key >> 32), y = (int) entry.key;
+                if (x >= fromX && x <= toX && y >= fromY && y <= toY) stamp(entry.value);
+            }
+        } else {
+            for (int x = fromX; x <= toX; x++) {
+                for (int y = fromY; y <= toY; y++) {
+                    Array<BaseActor> cell = cells.get(key(x, y));
+                    if (cell != null) stamp(cell);
+                }
+            }
+        }
+        return visibleCount;
+    }
+    
+    private void stamp(@NotNull Array<BaseActor> cell) {
+        BaseActor[] actors = cell.items;
+        for (int i = 0, n = cell.size; i < n; i++) actors[i].visibleFrame = frame;
+        visibleCount += cell.size;
+    }
+    
+    private void insert(@NotNull BaseActor actor, long key) {
+        Array<BaseActor> cell = cells.get(key);
+        if (cell == null) cells.put(key, cell = new Array<>(false, 8, BaseActor.class));
+        actor.cellKey = key;
+        actor.cellIndex = cell.size;
+        cell.add(actor);
+    }
+    
+    private void extract(@NotNull BaseActor actor) {
+        Array<BaseActor> cell = cells.get(actor.cellKey);
+        int index = actor.cellIndex;
+        cell.removeIndex(index);
+        if (index < cell.size) cell.items[index].cellIndex = index;
+    }
+    
+    private int cell(float coordinate) { return (int) Math.floor(coordinate / cellSize); }
+    
+    private long key(@NotNull BaseActor actor) { return key(cell(actor.getX()), cell(actor.getY())); }
+    
+    private static long key(int x, int y) { return (long) x << 32 | y & 0xFFFFFFFFL; }
+    
+    private static float extent(@NotNull BaseActor actor) {
+        return Math.abs(actor.getWidth() * actor.getScaleX()) + Math.abs(actor.getHeight() * actor.getScaleY());
+    }
+}
@@ -0,0 +1,229 @@
+package com.core.base.actor;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.core.base.enums.Direction;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * <p>The precomputed layout of a sprite sheet, written at build time by the sprite sheet preprocessor
+ * ({@code gradle preprocessSprites}) next to the processed sheet, so that {@link AnimationSet#load(String)} builds the
+ * frames of the sheet from their rectangles, with no rows and columns passed by hand and no split computed at
+ * runtime.</p>
+ * <p>A metadata file ({@value #FILE_EXTENSION}) is a big-endian binary file holding: a magic number and a version;
+ * the name of the texture, relative to the metadata file; the SHA-256 hash of the source image, usable as a cache key;
+ * the size of the texture and whether its alpha is premultiplied; the frame duration; the number of rows and columns;
+ * the {@link Direction} of each row; and the rectangle of each frame, row by row from the top left.</p>
+ *
+ * @author Tamir Eliraz
+ * @see AnimationSet#load(String)
+ */
+public final class SpriteSheetMetadata {
+    /**
+     * The extension of metadata files.
+     */
+    public static final String FILE_EXTENSION = ".sheet";
+    private static final int MAGIC = 0x42475348;
+    private static final int VERSION = 1;
+    private static final int HASH_LENGTH = 32;
+    private final String textureFile;
+    private final byte[] contentHash;
+    private final int width, height;
+    private final boolean premultipliedAlpha;
+    private final float frameDuration;
+    private final int rows, cols;
+    private final Direction[] rowDirections;
+    /**
+     * The x, y, width and height of each frame, in pixels of the texture from its top left corner.
+     */
+    private final int[] frames;
+    
+    /**
+     * @param textureFile
+     *         the name of the texture, relative to the metadata file
+     * @param contentHash
+     *         the SHA-256 hash of the source image
+     * @param width
+     *         the width of the texture
+     * @param height
+     *         the height of the texture
+     * @param premultipliedAlpha
+     *         whether the colors of the texture are premultiplied by their alpha
+     * @param frameDuration
+     *         the duration of each frame in seconds
+     * @param rows
+     *         the number of rows of frames
+     * @param cols
+     *         the number of columns of frames
+     * @param rowDirections
+     *         the {@link Direction} of each row, or {@code null} for rows not bound to a direction
+     * @param frames
+     *         the x, y, width and height of each frame, row by row from the top left
+     */
+    public SpriteSheetMetadata(@NotNull String textureFile, byte @NotNull [] contentHash, int width, int height,
+                               boolean premultipliedAlpha, float frameDuration, int rows, int cols,
+                               Direction @NotNull [] rowDirections, int @NotNull [] frames) {
+        if (contentHash.length != HASH_LENGTH)
+            throw new IllegalArgumentException("contentHash must be a SHA-256 hash: " + contentHash.length + " bytes");
+        if (rowDirections.length != rows)
+            throw new IllegalArgumentException("rowDirections must have one entry per row: " + rowDirections.length);
+        if (frames.length != rows * cols * 4)
+            throw new IllegalArgumentException("frames must hold 4 values per frame: " + frames.length);
+        this.textureFile = textureFile;
+        this.contentHash = contentHash.clone();
+        this.width = width;
+        this.height = height;
+        this.premultipliedAlpha = premultipliedAlpha;
+        this.frameDuration = frameDuration;
+        this.rows = rows;
+        this.cols = cols;
+        this.rowDirections = rowDirections.clone();
+        this.frames = frames.clone();
+    }
+    
+    /**
+     * Reads a metadata file.
+     *
+     * @param file
+     *         the metadata file
+     * @return the metadata
+     * @throws GdxRuntimeException
+     *         if the file cannot be read or is not a metadata file of a supported version
+     */
+    public static @NotNull SpriteSheetMetadata read(@NotNull FileHandle file) {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(file.read()));
+        try {
+            if (in.readInt() != MAGIC) throw new GdxRuntimeException("Not a sprite sheet metadata file: " + file);
+            int version = in.readUnsignedShort();
+            if (version != VERSION)
+                throw new GdxRuntimeException("Unsupported sprite sheet metadata version " + version + ": " + file);
+            String textureFile = in.readUTF();
+            byte[] contentHash = new byte[HASH_LENGTH];
+            in.readFully(contentHash);
+            int width = in.readInt(), height = in.readInt();
+            boolean premultipliedAlpha = in.readBoolean();
+            float frameDuration = in.readFloat();
+            int rows = in.readUnsignedShort(), cols = in.readUnsignedShort();
+            Direction[] directions = Direction.values();
+            Direction[] rowDirections = new Direction[rows];
+            for (int row = 0; row < rows; row++) {
+                int direction = in.readByte();
+                rowDirections[row] = direction < 0 ? null : directions[direction];
+            }
+            int[] frames = new int[rows * cols * 4];
+            for (int i = 0; i < frames.length; i++) frames[i] = in.readInt();
+            return new SpriteSheetMetadata(textureFile, contentHash, width, height, premultipliedAlpha,
+                    frameDuration, rows, cols, rowDirections, frames);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't read sprite sheet metadata: " + file, e);
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+    }
+    
+    /**
+     * Writes this metadata in the format {@link #read} reads.
+     *
+     * @param out
+     *         the stream to write to, which is not closed
+     * @throws IOException
+     *         if writing fails
+     */
+    public void write(@NotNull OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeUTF(textureFile);
+        data.write(contentHash);
+        data.writeInt(width);
+        data.writeInt(height);
+        data.writeBoolean(premultipliedAlpha);
+        data.writeFloat(frameDuration);
+        data.writeShort(rows);
+        data.writeShort(cols);
+        for (Direction direction : rowDirections) data.writeByte(direction == null ? -1 : direction.ordinal());
+        for (int value : frames) data.writeInt(value);
+        data.flush();
+    }
+    
+    /**
+     * @return the name of the texture, relative to the metadata file
+     */
+    public String getTextureFile() { return textureFile; }
+    
+    /**
+     * @return the SHA-256 hash of the source image, as 64 lowercase hexadecimal digits
+     */
+    public @NotNull String getContentHash() {
+        StringBuilder hex = new StringBuilder(HASH_LENGTH * 2);
+        for (byte b : contentHash)
+            hex.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return hex.toString();
+    }
+    
+    /**
+     * @param contentHash
+     *         a SHA-256 hash
+     * @return {@code true} if the source image of this metadata has the given hash
+     */
+    public boolean hasContentHash(byte @NotNull [] contentHash) {
+        return Arrays.equals(this.contentHash, contentHash);
+    }
+    
+    public int getWidth() { return width; }
+    
+    public int getHeight() { return height; }
+    
+    /**
+     * @return {@code true} if the colors of the texture are premultiplied by their alpha, so that it must be drawn with
+     * the blend function {@code (GL_ONE, GL_ONE_MINUS_SRC_ALPHA)}
+     */
+    public boolean isPremultipliedAlpha() { return premultipliedAlpha; }
+    
+    public float getFrameDuration() { return frameDuration; }
+    
+    public int getRows() { return rows; }
+    
+    public int getCols() { return cols; }
+    
+    /**
+     * @param row
+     *         a row, from {@code 0} for the top row
+     * @return the {@link Direction} of the row, or {@code null} if the row is not bound to a direction
+     */
+    @Contract(pure = true)
+    public @Nullable Direction getDirection(int row) { return rowDirections[row]; }
+    
+    /**
+     * @return the {@link Direction} of each row, from the top, with {@code null} for rows not bound to a direction
+     */
+    public Direction @NotNull [] getRowDirections() { return rowDirections.clone(); }
+    
+    /**
+     * @param frame
+     *         the index of a frame, row by row from the top left
+     * @return the x of the frame, in pixels from the left of the texture
+     */
+    public int getFrameX(int frame) { return frames[frame * 4]; }
+    
+    /**
+     * @param frame
+     *         the index of a frame, row by row from the top left
+     * @return the y of the frame, in pixels from the top of the texture
+     */
+    public int getFrameY(int frame) { return frames[frame * 4 + 1]; }
+    
+    public int getFrameWidth(int frame) { return frames[frame * 4 + 2]; }
+    
+    public int getFrameHeight(int frame) { return frames[frame * 4 + 3]; }
+}
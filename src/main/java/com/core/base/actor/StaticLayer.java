@@ -0,0 +1,257 @@
+package com.core.base.actor;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.IntBuffer;
+
+/**
+ * <p>The {@link BaseActor#setStatic static} actors of a {@link com.core.base.game.BaseStage BaseStage}, baked into a
+ * {@link SpriteCache}. The actors are grouped into one chunk per {@link Texture}, each chunk a cache of the
+ * {@link SpriteCache}, so that the whole layer is drawn with one call per texture and its vertices are uploaded to the
+ * GPU only when something changes.</p>
+ * <p>The layer is drawn before the stage, so static actors are always underneath every other actor, whatever their
+ * {@link BaseActor#getLayer() layer}. It is blended like the stage's batch, premultiplied alpha included.</p>
+ * <p>A change to a static actor (see {@link BaseActor#markDirty()}) rebuilds only its chunk, in place; adding actors to
+ * a chunk beyond the number it was built with, or outgrowing the {@link SpriteCache}, rebuilds every chunk. Animation
+ * frame changes are not changes here: a static actor is baked with the frame its animation shows when its chunk is
+ * built.</p>
+ *
+ * @author Tamir Eliraz
+ * @see com.core.base.game.BaseStage#getStaticLayer()
+ */
+public class StaticLayer implements Disposable {
+    private static final int INITIAL_SIZE = 256;
+    private final ObjectMap<Texture, Chunk> chunksByTexture;
+    private final Array<Chunk> chunks;
+    /**
+     * Static actors that are in no chunk yet, e.g. because they have no animation.
+     */
+    private final Array<BaseActor> pending;
+    private SpriteCache cache;
+    private int cacheSize;
+    /**
+     * The number of sprites reserved by the chunks built since the {@link SpriteCache} was last cleared.
+     */
+    private int used;
+    private int renderCalls;
+    /**
+     * Receives the GL blend state, to restore it after drawing.
+     */
+    private final IntBuffer blendState;
+    
+    static final class Chunk {
+        private final Texture texture;
+        private final Array<BaseActor> actors;
+        private int cacheId;
+        private int capacity;
+        private boolean dirty;
+        /**
+         * Whether the texture of this chunk has its colors premultiplied by their alpha (see
+         * {@link BaseAnimation#isPremultipliedAlpha()}).
+         */
+        private boolean premultipliedAlpha;
+        
+        private Chunk(Texture texture) {
+            this.texture = texture;
+            actors = new Array<>(false, 16, BaseActor.class);
+            cacheId = -1;
+            dirty = true;
+        }
+    }
+    
+    public StaticLayer() {
+        chunksByTexture = new ObjectMap<>();
+        chunks = new Array<>();
+        blendState = BufferUtils.newIntBuffer(16);
+        pending = new Array<>(false, 16, BaseActor.class);
+    }
+    
+    /**
+     * Bakes an actor into this layer; it is no longer drawn by itself.
+     */
+    void add(@NotNull BaseActor actor) {
+        if (actor.staticLayer == this) return;
+        if (actor.staticLayer != null) actor.staticLayer.remove(actor);
+        actor.staticLayer = this;
+        pending.add(actor);
+    }
+    
+    /**
+     * Removes an actor from this layer; it is drawn by itself again.
+     */
+    void remove(@NotNull BaseActor actor) {
+        if (actor.staticLayer != this) return;
+        if (actor.staticChunk != null) {
+            actor.staticChunk.actors.removeValue(actor, true);
+            actor.staticChunk.dirty = true;
+            actor.staticChunk = null;
+        } else {
+            pending.removeValue(actor, true);
+        }
+        actor.staticLayer = null;
+    }
+    
+    /**
+     * Marks the chunk of an actor for rebuilding, after the actor changed.
+     */
+    void invalidate(@NotNull BaseActor actor) {
+        if (actor.staticChunk != null) actor.staticChunk.dirty = true;
+    }
+    
+    /**
+     * @return the number of draw calls the last {@link #draw} made
+     */
+    public int getRenderCalls() { return renderCalls; }
+    
+    /**
+     * Rebuilds the chunks that changed, then draws every chunk, blended with {@code (GL_SRC_ALPHA,
+     * GL_ONE_MINUS_SRC_ALPHA)}, or {@code (GL_ONE, GL_ONE_MINUS_SRC_ALPHA)} for textures with premultiplied alpha. The
+     * GL blend state is restored after.
+     *
+     * @param projection
+     *         the projection matrix of the stage's camera
+     */
+    public void draw(@NotNull Matrix4 projection) {
+        update();
+        renderCalls = 0;
+        if (cache == null) return;
+        GL20 gl = Gdx.gl;
+        boolean blending = gl.glIsEnabled(GL20.GL_BLEND);
+        int srcFunc = blendParameter(gl, GL20.GL_BLEND_SRC_RGB);
+        int dstFunc = blendParameter(gl, GL20.GL_BLEND_DST_RGB);
+        int srcFuncAlpha = blendParameter(gl, GL20.GL_BLEND_SRC_ALPHA);
+        int dstFuncAlpha = blendParameter(gl, GL20.GL_BLEND_DST_ALPHA);
+        gl.glEnable(GL20.GL_BLEND);
+        cache.setProjectionMatrix(projection);
+        cache.begin();
+        int blendedSrcFunc = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.cacheId < 0 || chunk.actors.isEmpty()) continue;
+            int chunkSrcFunc = chunk.premultipliedAlpha ? GL20.GL_ONE : GL20.GL_SRC_ALPHA;
+            if (chunkSrcFunc != blendedSrcFunc) {
+                blendedSrcFunc = chunkSrcFunc;
+                gl.glBlendFunc(chunkSrcFunc, GL20.GL_ONE_MINUS_SRC_ALPHA);
+            }
+            cache.draw(chunk.cacheId);
+        }
+        cache.end();
+        gl.glBlendFuncSeparate(srcFunc, dstFunc, srcFuncAlpha, dstFuncAlpha);
+        if (!blending) gl.glDisable(GL20.GL_BLEND);
+        renderCalls = cache.renderCalls;
+    }
+    
+    private int blendParameter(@NotNull GL20 gl, int parameter) {
+        gl.glGetIntegerv(parameter, blendState);
+        return blendState.get(0);
+    }
+    
+    private void update() {
+        for (int i = pending.size - 1; i >= 0; i--) {
+            BaseActor actor = pending.get(i);
+            if (!actor.hasAnimation()) continue;
+            pending.removeIndex(i);
+            place(actor);
+        }
+        for (int i = 0; i < chunks.size; i++) {
+            Chunk chunk = chunks.get(i);
+            if (!chunk.dirty) continue;
+            for (int j = chunk.actors.size - 1; j >= 0; j--) {
+                BaseActor actor = chunk.actors.get(j);
+                if (texture(actor) == chunk.texture) continue;
+                chunk.actors.removeIndex(j);
+                if (actor.hasAnimation()) {
+                    place(actor);
+                } else {
+                    actor.staticChunk = null;
+                    pending.add(actor);
+                }
+            }
+        }
+        int total = 0, growth = 0;
+        boolean rebuildAll = false;
+        for (Chunk chunk : chunks) {
+            total += chunk.actors.size;
+            if (!chunk.dirty) continue;
+            if (chunk.cacheId < 0) growth += chunk.actors.size;
+            else if (chunk.actors.size > chunk.capacity) rebuildAll = true;
+        }
+        if (cache == null || total > cacheSize) {
+            if (total == 0) return;
+            if (cache != null) cache.dispose();
+            cacheSize = Math.max(INITIAL_SIZE, total * 2);
+            cache = new SpriteCache(cacheSize, false);
+            rebuildAll = true;
+        } else if (used + growth > cacheSize) {
+            rebuildAll = true;
+        }
+        if (rebuildAll) {
+            cache.clear();
+            used = 0;
+            for (Chunk chunk : chunks) chunk.cacheId = -1;
+        }
+        for (Chunk chunk : chunks) {
+            if (!chunk.dirty && chunk.cacheId >= 0) continue;
+            build(chunk);
+            chunk.dirty = false;
+        }
+    }
+    
+    private void place(@NotNull BaseActor actor) {
+        Texture texture = texture(actor);
+        Chunk chunk = chunksByTexture.get(texture);
+        if (chunk == null) {
+            chunksByTexture.put(texture, chunk = new Chunk(texture));
+            chunks.add(chunk);
+        }
+        chunk.actors.add(actor);
+        chunk.dirty = true;
+        actor.staticChunk = chunk;
+    }
+    
+    private void build(@NotNull Chunk chunk) {
+        boolean redefine = chunk.cacheId >= 0;
+        if (!redefine && chunk.actors.isEmpty()) return;
+        if (redefine) cache.beginCache(chunk.cacheId);
+        else cache.beginCache();
+        chunk.premultipliedAlpha = false;
+        for (BaseActor actor : chunk.actors) {
+            if (!actor.isVisible()) continue;
+            BaseAnimation animation = actor.getAnimation();
+            TextureRegion frame = animation.getKeyFrame(animation.getElapsedTime());
+            Color color = actor.getColor();
+            chunk.premultipliedAlpha |= animation.isPremultipliedAlpha();
+            cache.setPackedColor(animation.isPremultipliedAlpha()
+                    ? Color.toFloatBits(color.r * color.a, color.g * color.a, color.b * color.a, color.a)
+                    : color.toFloatBits());
+            cache.add(frame, actor.getX(), actor.getY(), actor.getOriginX(), actor.getOriginY(),
+                    actor.getWidth(), actor.getHeight(), actor.getScaleX(), actor.getScaleY(), actor.getRotation());
+        }
+        int id = cache.endCache();
+        if (redefine) return;
+        chunk.cacheId = id;
+        chunk.capacity = chunk.actors.size;
+        used += chunk.capacity;
+    }
+    
+    private static Texture texture(@NotNull BaseActor actor) {
+        BaseAnimation animation = actor.getAnimation();
+        return animation == null ? null : animation.getKeyFrame(animation.getElapsedTime()).getTexture();
+    }
+    
+    @Override
+    public void dispose() {
+        if (cache != null) cache.dispose();
+        cache = null;
+    }
+}
@@ -2,6 +2,7 @@ package com.core.base.enums;
 
 import com.badlogic.gdx.Input;
 import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -13,22 +14,35 @@ public enum Direction {
     /**
      * Represents the right direction.
      */
-    RIGHT,
+    RIGHT(Input.Keys.RIGHT, Input.Keys.D),
     
     /**
      * Represents the left direction.
      */
-    LEFT,
+    LEFT(Input.Keys.LEFT, Input.Keys.A),
     
     /**
      * Represents the upward direction.
      */
-    UP,
+    UP(Input.Keys.UP, Input.Keys.W),
     
     /**
      * Represents the downward direction.
      */
-    DOWN;
+    DOWN(Input.Keys.DOWN, Input.Keys.S);
+    
+    /**
+     * The {@link Direction} of every {@link Input.Keys key code}, or {@code null} for keys that are not a direction.
+     */
+    private static final Direction[] byKey = new Direction[Input.Keys.MAX_KEYCODE + 1];
+    private final int[] keys;
+    
+    static {
+        for (Direction direction : values())
+            for (int key : direction.keys) byKey[key] = direction;
+    }
+    
+    Direction(int... keys) { this.keys = keys; }
     
     /**
      * Returns the corresponding {@link Direction} for the given {@link Input.Keys key input}.
@@ -41,15 +55,35 @@ public enum Direction {
      */
     @Contract(pure = true)
     public static @Nullable Direction getByKey(int key) {
-        return switch (key) {
-            case Input.Keys.UP, Input.Keys.W -> UP;
-            case Input.Keys.DOWN, Input.Keys.S -> DOWN;
-            case Input.Keys.LEFT, Input.Keys.A -> LEFT;
-            case Input.Keys.RIGHT, Input.Keys.D -> RIGHT;
-            default -> null;
-        };
+        return key >= 0 && key < byKey.length ? byKey[key] : null;
     }
     
+    /**
+     * Returns the {@link Input.Keys key codes} of this {@link Direction} (e.g., {@link Input.Keys UP} and
+     * {@link Input.Keys W} for {@link #UP}).
+     *
+     * @return a new array of the key codes that {@link #getByKey(int)} maps to this direction
+     */
+    @Contract(pure = true)
+    public int @NotNull [] getKeys() { return keys.clone(); }
+    
+    /**
+     * @return the number of {@link Input.Keys key codes} of this {@link Direction}
+     */
+    @Contract(pure = true)
+    public int getKeyCount() { return keys.length; }
+    
+    /**
+     * Returns a {@link Input.Keys key code} of this {@link Direction}, without copying the array {@link #getKeys()}
+     * returns.
+     *
+     * @param index
+     *         the index of the key code, from {@code 0} to {@link #getKeyCount()} exclusive
+     * @return the key code
+     */
+    @Contract(pure = true)
+    public int getKey(int index) { return keys[index]; }
+    
     /**
      * Returns whether the {@link Direction direction} is along the X axis.
      *
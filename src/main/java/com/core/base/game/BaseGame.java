@@ -19,6 +19,23 @@ public class BaseGame extends Game {
     
     public Stage getStage() { return screen.getStage(); }
     
+    /**
+     * Runs the given number of simulation ticks of the screen back to back, without drawing.
+     *
+     * @see BaseScreen#simulate(int)
+     */
+    public BaseGame simulate(int ticks) { screen.simulate(ticks); return this; }
+    
+    /**
+     * @see BaseScreen#setProfiling(boolean)
+     */
+    public BaseGame setProfiling(boolean profiling) { screen.setProfiling(profiling); return this; }
+    
+    /**
+     * @return the profiler of the screen's frames, or {@code null} if profiling is off
+     */
+    public FrameProfiler getProfiler() { return screen.getProfiler(); }
+    
     @Override
     public void create() {
         screen = new BaseScreen(700, 800);
@@ -6,23 +6,60 @@ import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.utils.viewport.*;
 import com.core.base.actor.BaseActor;
+import com.core.base.actor.MovementSystem;
 import com.core.base.group.BaseGroup;
+import com.core.handler.AssetManagerHandler;
+import com.core.handler.InputState;
+import com.core.jfr.FrameEvent;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.InvocationTargetException;
 
 /**
  * @author Tamir Eliraz
+ * @see BaseStage
  */
 public class BaseScreen implements Screen {
+    /**
+     * The default time, in milliseconds, each frame spends on queued asset loads (see {@link #setLoadBudgetMillis}).
+     */
+    public static final int DEFAULT_LOAD_BUDGET_MILLIS = 4;
+    /**
+     * The default longest frame time, in seconds, the fixed-timestep simulation catches up on (see
+     * {@link #setMaxFrameTime}).
+     */
+    public static final float DEFAULT_MAX_FRAME_TIME = 0.25f;
+    /**
+     * The number of frames drawn after the last change in {@link #setRenderOnDemand render on demand} mode, so that
+     * both buffers of a double-buffered window show it.
+     */
+    private static final int REDRAW_FRAMES = 2;
     private boolean centerCamera;
+    private int loadBudgetMillis;
+    private MovementSystem movementSystem;
+    /**
+     * The duration of a simulation tick in seconds, or {@code 0} to run one tick per frame with the frame's delta.
+     */
+    private float timestep;
+    private float maxFrameTime;
+    private float accumulator;
+    private boolean renderOnDemand;
+    /**
+     * Whether the last simulation tick changed anything drawn, so that the frames interpolating towards it are drawn.
+     */
+    private boolean lastTickDirty;
+    private int cleanFrames;
+    private boolean headless;
+    /**
+     * The profiler of this screen's frames, or {@code null} if profiling is off.
+     */
+    private FrameProfiler profiler;
     private Color bgColor;
     private final OrthographicCamera camera;
     private Viewport viewport;
-    protected Stage stage;
+    protected BaseStage stage;
     
     public BaseScreen(float worldWidth, float worldHeight) {
         this(worldWidth, worldHeight, FitViewport.class);
@@ -30,11 +67,15 @@ public class BaseScreen implements Screen {
     
     public BaseScreen(float worldWidth, float worldHeight, Class<? extends Viewport> cls) {
         try {
+            headless = Headless.isHeadless();
+            if (headless) Headless.install();
             camera = new OrthographicCamera();
             setViewport(worldWidth, worldHeight, cls);
-            stage = new Stage();
+            stage = new BaseStage();
             setCenterCamera(true);
             setBgColor(Color.WHITE);
+            setLoadBudgetMillis(DEFAULT_LOAD_BUDGET_MILLIS);
+            setMaxFrameTime(DEFAULT_MAX_FRAME_TIME);
         } catch (NoSuchMethodException | InvocationTargetException
                  | InstantiationException | IllegalAccessException e) {
             throw new RuntimeException(e);
@@ -75,43 +116,267 @@ public class BaseScreen implements Screen {
     
     public boolean isCenterCamera() { return centerCamera; }
     
+    /**
+     * Sets how long each frame may spend advancing the loads queued by
+     * {@link AssetManagerHandler#loadTextureAsync}, so that loading never stalls a frame for longer than that.
+     *
+     * @param loadBudgetMillis
+     *         the time budget in milliseconds, or {@code 0} to let the game drive the loads itself
+     * @return this screen to allow for method chaining
+     */
+    public BaseScreen setLoadBudgetMillis(int loadBudgetMillis) {
+        this.loadBudgetMillis = loadBudgetMillis;
+        return this;
+    }
+    
+    public int getLoadBudgetMillis() { return loadBudgetMillis; }
+    
+    /**
+     * Runs the simulation at a fixed rate, independent of the frame rate: every frame runs as many ticks of
+     * {@code 1 / tickRate} seconds as the elapsed time allows (possibly none), and actors are drawn between their
+     * positions at the end of the last two ticks (see {@link BaseStage#setInterpolationAlpha}).
+     *
+     * @param tickRate
+     *         the number of simulation ticks per second, or {@code 0} to run one tick per frame with the frame's
+     *         delta, the default
+     * @return this screen to allow for method chaining
+     */
+    public BaseScreen setTickRate(int tickRate) {
+        if (tickRate < 0) throw new IllegalArgumentException("tickRate must not be negative: " + tickRate);
+        timestep = tickRate == 0 ? 0 : 1f / tickRate;
+        accumulator = 0;
+        stage.setInterpolationAlpha(1);
+        return this;
+    }
+    
+    /**
+     * @return the number of simulation ticks per second, or {@code 0} if the simulation runs once per frame
+     */
+    public int getTickRate() { return timestep == 0 ? 0 : Math.round(1 / timestep); }
+    
+    /**
+     * Sets the longest frame time the fixed-timestep simulation catches up on; time beyond it is dropped, so that a
+     * long stall slows the game down instead of running an ever-growing number of ticks.
+     *
+     * @param maxFrameTime
+     *         the time in seconds
+     * @return this screen to allow for method chaining
+     */
+    public BaseScreen setMaxFrameTime(float maxFrameTime) {
+        this.maxFrameTime = maxFrameTime;
+        return this;
+    }
+    
+    public float getMaxFrameTime() { return maxFrameTime; }
+    
+    /**
+     * Sets whether this screen draws only when something changed. When on, frames in which no actor moved, changed or
+     * advanced its animation frame, the camera stood still, no key went down, up or is held, and no texture is
+     * loading are neither cleared nor drawn, and once nothing changed for a few frames rendering turns
+     * non-continuous (see {@link com.badlogic.gdx.Graphics#setContinuousRendering}) until an input event or a new
+     * load requests a frame. Off by default.
+     *
+     * @param renderOnDemand
+     *         whether to draw only when something changed
+     * @return this screen to allow for method chaining
+     * @see BaseStage#markDirty()
+     */
+    public BaseScreen setRenderOnDemand(boolean renderOnDemand) {
+        this.renderOnDemand = renderOnDemand;
+        cleanFrames = 0;
+        stage.setTrackingChanges(renderOnDemand).markDirty();
+        Gdx.graphics.setContinuousRendering(true);
+        return this;
+    }
+    
+    public boolean isRenderOnDemand() { return renderOnDemand; }
+    
+    /**
+     * Sets whether this screen runs in headless mode, in which rendering a frame only runs the simulation: the input
+     * snapshot is published and the stage acts, but the camera is not updated and nothing is cleared or drawn. With a
+     * {@link #setTickRate fixed tick rate}, every frame runs exactly one tick, however much real time passed, so the
+     * simulation runs as fast as the backend renders, e.g. as fast as possible on a headless backend configured with
+     * {@code updatesPerSecond = 0}; {@link #simulate(int)} runs many ticks at once. On by default on the libGDX headless
+     * backend, where the screen sets {@link Gdx#gl} to a GL that does nothing (see {@link Headless}).
+     *
+     * @param headless
+     *         whether to only run the simulation
+     * @return this screen to allow for method chaining
+     */
+    public BaseScreen setHeadless(boolean headless) {
+        this.headless = headless;
+        return this;
+    }
+    
+    public boolean isHeadless() { return headless; }
+    
+    /**
+     * Runs the given number of simulation ticks back to back, publishing the input snapshot before each, without
+     * drawing, as fast as the CPU allows. Requires a {@link #setTickRate fixed tick rate}.
+     *
+     * @param ticks
+     *         the number of ticks to run
+     * @return this screen to allow for method chaining
+     */
+    public BaseScreen simulate(int ticks) {
+        if (timestep == 0) throw new IllegalStateException("simulate requires a fixed tick rate, see setTickRate");
+        for (int i = 0; i < ticks; i++) {
+            InputState.getInstance().publish();
+            tick(timestep);
+        }
+        stage.setInterpolationAlpha(1);
+        return this;
+    }
+    
+    /**
+     * Sets whether this screen records the time of each phase of its frames, and the counters of its stage, in a
+     * {@link FrameProfiler}. Off by default; when off, a frame measures nothing.
+     *
+     * @param profiling
+     *         whether to profile the frames of this screen
+     * @return this screen to allow for method chaining
+     */
+    public BaseScreen setProfiling(boolean profiling) {
+        if (profiling == (profiler != null)) return this;
+        if (profiling) {
+            profiler = new FrameProfiler();
+        } else {
+            profiler.dispose();
+            profiler = null;
+        }
+        return this;
+    }
+    
+    public boolean isProfiling() { return profiler != null; }
+    
+    /**
+     * @return the profiler of this screen's frames, or {@code null} if profiling is off
+     * @see #setProfiling(boolean)
+     */
+    public FrameProfiler getProfiler() { return profiler; }
+    
+    /**
+     * Returns the {@link MovementSystem} of this screen, creating it on first use. Actors
+     * {@link MovementSystem#add added} to it are moved and animated by it before the stage acts.
+     *
+     * @return the {@link MovementSystem} of this screen
+     */
+    public MovementSystem getMovementSystem() {
+        if (movementSystem == null) movementSystem = new MovementSystem();
+        return movementSystem;
+    }
+    
     @Override
-    public void show() { }
+    public void show() { wake(); }
     
     private void clear() {
         Gdx.gl.glClearColor(bgColor.r, bgColor.g, bgColor.b, bgColor.a);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
     }
     
+    /**
+     * Makes the next frame draw, and rendering continuous again, in {@link #setRenderOnDemand render on demand} mode.
+     */
+    private void wake() {
+        stage.markDirty();
+        if (Gdx.graphics != null) Gdx.graphics.requestRendering();
+    }
+    
     @Override
     public void render(float dt) {
-        clear();
+        FrameProfiler profiler = this.profiler;
+        if (profiler != null) profiler.beginFrame();
+        FrameEvent event = FrameEvent.start();
+        InputState.Snapshot input = InputState.getInstance().publish();
+        endPhase(profiler, event, FrameProfiler.Phase.INPUT);
+        if (loadBudgetMillis > 0) AssetManagerHandler.getInstance().update(loadBudgetMillis);
+        endPhase(profiler, event, FrameProfiler.Phase.LOAD);
         
-        updateCamera();
+        if (!headless) updateCamera();
+        endPhase(profiler, event, FrameProfiler.Phase.CAMERA);
         
+        boolean ticked = true;
+        if (timestep > 0 && headless) {
+            tick(timestep);
+            stage.setInterpolationAlpha(1);
+        } else if (timestep > 0) {
+            accumulator += Math.min(dt, maxFrameTime);
+            ticked = accumulator >= timestep;
+            while (accumulator >= timestep) {
+                tick(timestep);
+                accumulator -= timestep;
+            }
+            stage.setInterpolationAlpha(accumulator / timestep);
+        } else {
+            tick(dt);
+        }
+        endPhase(profiler, event, FrameProfiler.Phase.ACT);
+        boolean draw = !headless && (!renderOnDemand || shouldDraw(input, ticked));
+        if (draw) {
+            clear();
+            endPhase(profiler, event, FrameProfiler.Phase.CLEAR);
+            stage.draw();
+            if (profiler != null && profiler.isOverlayVisible()) profiler.drawOverlay(stage.getBatch());
+            endPhase(profiler, event, FrameProfiler.Phase.DRAW);
+        }
+        if (profiler != null) profiler.endFrame(stage, draw);
+        if (event != null) event.finish(stage, draw);
+    }
+    
+    private static void endPhase(FrameProfiler profiler, FrameEvent event, @NotNull FrameProfiler.Phase phase) {
+        if (profiler != null) profiler.endPhase(phase);
+        if (event != null) event.endPhase(phase);
+    }
+    
+    private boolean shouldDraw(@NotNull InputState.Snapshot input, boolean ticked) {
+        boolean dirty = stage.pollDirty();
+        if (ticked) lastTickDirty = dirty;
+        else dirty |= lastTickDirty && timestep > 0;
+        boolean active = dirty || input.isChanged() || input.getPressedCount() > 0
+                || AssetManagerHandler.getInstance().isLoading();
+        cleanFrames = active ? 0 : Math.min(cleanFrames + 1, REDRAW_FRAMES + 1);
+        boolean continuous = cleanFrames < REDRAW_FRAMES;
+        if (Gdx.graphics.isContinuousRendering() != continuous) Gdx.graphics.setContinuousRendering(continuous);
+        return cleanFrames <= REDRAW_FRAMES;
+    }
+    
+    /**
+     * Runs one simulation tick: updates the {@link MovementSystem}, if any, then acts the stage.
+     *
+     * @param dt
+     *         the duration of the tick in seconds
+     */
+    protected void tick(float dt) {
+        if (movementSystem != null) movementSystem.update(dt);
         stage.act(dt);
-        stage.draw();
     }
     
     @Override
     public void resize(int worldWidth, int worldHeight) {
         updateViewport(worldWidth, worldHeight);
         updateCamera();
+        wake();
     }
     
     @Override
     public void pause() { }
     
     @Override
-    public void resume() { }
+    public void resume() { wake(); }
     
     @Override
     public void hide() { }
     
     @Override
-    public void dispose() { stage.dispose(); }
+    public void dispose() {
+        stage.dispose();
+        setProfiling(false);
+    }
     
-    public Stage getStage() {
+    /**
+     * @return the {@link BaseStage} of this screen, which culls the actors outside its camera's view
+     */
+    public BaseStage getStage() {
         return stage;
     }
     
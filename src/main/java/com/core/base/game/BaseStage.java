@@ -0,0 +1,446 @@
+package com.core.base.game;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.core.base.actor.AnimationClock;
+import com.core.base.actor.BaseActor;
+import com.core.base.actor.ParallelUpdate;
+import com.core.base.actor.RenderQueue;
+import com.core.base.actor.SpatialGrid;
+import com.core.base.actor.StaticLayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * <p>A {@link Stage} that culls the {@link BaseActor}s outside its camera's view. Its actors are indexed in a
+ * {@link SpatialGrid}, kept up to date as they move; before every {@link #draw()}, only the actors in the cells
+ * intersecting the camera's frustum are marked visible, and the others skip their draw (see
+ * {@link BaseActor#isCulled()}) and, if they opted in, their act (see {@link BaseActor#setSleepWhenOffScreen}).</p>
+ * <p>Only actors added directly to the stage are culled; actors inside a
+ * {@link com.badlogic.gdx.scenes.scene2d.Group Group} are always drawn with their group. {@link #getDrawnCount()} and
+ * {@link #getCulledCount()} report the result of the last frame.</p>
+ *
+ * @author Tamir Eliraz
+ * @see BaseScreen
+ */
+public class BaseStage extends Stage {
+    private final SpatialGrid grid;
+    private boolean cullingEnabled;
+    private int drawnCount;
+    private int culledCount;
+    /**
+     * The number of {@link #act(float)} calls so far, i.e. of simulation ticks.
+     */
+    private long tick;
+    private float interpolationAlpha;
+    private final ParallelUpdate parallelUpdate;
+    private AnimationClock animationClock;
+    /**
+     * Whether anything drawn changed since the last {@link #pollDirty()}; written by actors, possibly from the workers
+     * of a {@link ParallelUpdate}, where the race is harmless since every write sets it.
+     */
+    private boolean dirty;
+    /**
+     * Whether changes that cost work to detect, such as animation frame changes, are tracked; only needed in
+     * {@link BaseScreen#setRenderOnDemand render on demand} mode.
+     */
+    private boolean trackingChanges;
+    /**
+     * The camera's combined matrix at the last {@link #pollDirty()}, to tell whether the camera moved.
+     */
+    private final float[] lastCamera;
+    private RenderQueue renderQueue;
+    private StaticLayer staticLayer;
+    private int renderCalls;
+    /**
+     * Whether the child of the root being drawn draws nothing but animations, so that the blend function may be left
+     * as the last animation set it (see {@link #setPremultipliedBlend}).
+     */
+    private boolean blendGrouped;
+    /**
+     * Whether the batch's blend function is set for premultiplied alpha, and the blend function it had before.
+     */
+    private boolean premultipliedBlend;
+    private int blendSrcFunc, blendDstFunc, blendSrcFuncAlpha, blendDstFuncAlpha;
+    
+    /**
+     * The root of a {@link BaseStage}, which submits the stage's {@link RenderQueue}, if enabled, before each of its
+     * children whose draws cannot be queued, and after drawing the scene graph, before the batch ends. It also restores
+     * the batch's blend function, left as the last premultiplied animation set it, before any child that draws more
+     * than animations.
+     */
+    private final class Root extends Group {
+        @Override
+        public void draw(Batch batch, float parentAlpha) {
+            if (renderQueue != null) renderQueue.begin();
+            super.draw(batch, parentAlpha);
+            restoreBlend(batch);
+            if (renderQueue != null) renderQueue.flush(batch);
+        }
+        
+        @Override
+        protected void drawChildren(Batch batch, float parentAlpha) {
+            if (!isTransform()) {
+                super.drawChildren(batch, parentAlpha);
+                return;
+            }
+            parentAlpha *= getColor().a;
+            Rectangle cullingArea = getCullingArea();
+            SnapshotArray<Actor> children = getChildren();
+            Actor[] actors = children.begin();
+            for (int i = 0, n = children.size; i < n; i++) {
+                Actor child = actors[i];
+                if (!child.isVisible() || cullingArea != null && !isInside(child, cullingArea)) continue;
+                if (renderQueue != null && isQueueable(child)) {
+                    child.draw(batch, parentAlpha);
+                    continue;
+                }
+                boolean animated = isAnimated(child);
+                if (!animated || renderQueue != null) restoreBlend(batch);
+                if (renderQueue != null) renderQueue.flush(batch);
+                blendGrouped = animated;
+                child.draw(batch, parentAlpha);
+                blendGrouped = false;
+                if (renderQueue != null) renderQueue.resume();
+            }
+            children.end();
+        }
+        
+        private static boolean isInside(@NotNull Actor actor, @NotNull Rectangle area) {
+            return actor.getX() <= area.x + area.width && actor.getY() <= area.y + area.height
+                    && actor.getX() + actor.getWidth() >= area.x && actor.getY() + actor.getHeight() >= area.y;
+        }
+        
+        /**
+         * @return {@code true} if every draw of the actor goes through the render queue: it is a {@link BaseActor}, or
+         * a {@link Group} of such actors that neither scales nor rotates them
+         */
+        private static boolean isQueueable(Actor actor) {
+            if (actor instanceof BaseActor) return true;
+            if (!(actor instanceof Group group) || group.isTransform()
+                    && (group.getScaleX() != 1 || group.getScaleY() != 1 || group.getRotation() != 0))
+                return false;
+            SnapshotArray<Actor> children = group.getChildren();
+            for (int i = 0; i < children.size; i++)
+                if (children.get(i).isVisible() && !isQueueable(children.get(i))) return false;
+            return true;
+        }
+        
+        /**
+         * @return {@code true} if the actor draws nothing but animations: it is a {@link BaseActor}, or a
+         * {@link Group} of such actors
+         */
+        private static boolean isAnimated(Actor actor) {
+            if (actor instanceof BaseActor) return true;
+            if (!(actor instanceof Group group)) return false;
+            SnapshotArray<Actor> children = group.getChildren();
+            for (int i = 0; i < children.size; i++)
+                if (children.get(i).isVisible() && !isAnimated(children.get(i))) return false;
+            return true;
+        }
+    }
+    
+    public BaseStage() {
+        super();
+        grid = new SpatialGrid();
+        cullingEnabled = true;
+        interpolationAlpha = 1;
+        lastCamera = new float[16];
+        parallelUpdate = new ParallelUpdate().setParallel(false);
+        dirty = true;
+        setRoot(new Root());
+    }
+    
+    public BaseStage(@NotNull Viewport viewport) {
+        super(viewport);
+        grid = new SpatialGrid();
+        cullingEnabled = true;
+        interpolationAlpha = 1;
+        lastCamera = new float[16];
+        parallelUpdate = new ParallelUpdate().setParallel(false);
+        dirty = true;
+        setRoot(new Root());
+    }
+    
+    public BaseStage(@NotNull Viewport viewport, @NotNull Batch batch, float cellSize) {
+        super(viewport, batch);
+        grid = new SpatialGrid(cellSize);
+        cullingEnabled = true;
+        interpolationAlpha = 1;
+        lastCamera = new float[16];
+        parallelUpdate = new ParallelUpdate().setParallel(false);
+        dirty = true;
+        setRoot(new Root());
+    }
+    
+    public @NotNull SpatialGrid getGrid() { return grid; }
+    
+    public boolean isCullingEnabled() { return cullingEnabled; }
+    
+    /**
+     * @param cullingEnabled
+     *         whether actors outside the camera's view are culled; when disabled, every actor is drawn
+     * @return this stage to allow for method chaining
+     */
+    public BaseStage setCullingEnabled(boolean cullingEnabled) {
+        this.cullingEnabled = cullingEnabled;
+        return this;
+    }
+    
+    /**
+     * @return how many indexed actors were inside the camera's view in the last frame
+     */
+    public int getDrawnCount() { return drawnCount; }
+    
+    /**
+     * @return how many indexed actors were culled in the last frame
+     */
+    public int getCulledCount() { return culledCount; }
+    
+    /**
+     * @return the number of simulation ticks so far, i.e. of calls to {@link #act(float)}
+     */
+    public long getTick() { return tick; }
+    
+    /**
+     * @return how far, from {@code 0} to {@code 1}, the frame being drawn is between the last two simulation ticks
+     */
+    public float getInterpolationAlpha() { return interpolationAlpha; }
+    
+    /**
+     * Sets how far the frame being drawn is between the last two simulation ticks, so that {@link BaseActor}s are drawn
+     * between their positions at the end of these ticks (see {@link BaseActor#getInterpolatedX()}). {@code 1}, the
+     * default, draws every actor where it is.
+     *
+     * @param interpolationAlpha
+     *         a value from {@code 0}, at the previous tick, to {@code 1}, at the last one
+     * @return this stage to allow for method chaining
+     */
+    public BaseStage setInterpolationAlpha(float interpolationAlpha) {
+        this.interpolationAlpha = interpolationAlpha;
+        return this;
+    }
+    
+    /**
+     * @return the update phase of this stage, which runs the updates of the actors that
+     * {@link BaseActor#setIndependentUpdate declared their update independent} at the end of every tick
+     */
+    public @NotNull ParallelUpdate getParallelUpdate() { return parallelUpdate; }
+    
+    public boolean isParallelUpdate() { return parallelUpdate.isParallel(); }
+    
+    /**
+     * Sets whether the actors that {@link BaseActor#setIndependentUpdate declared their update independent} update in
+     * parallel, on the {@link ParallelUpdate#getPool() pool} of the {@link #getParallelUpdate() update phase}, the
+     * common {@link java.util.concurrent.ForkJoinPool ForkJoinPool} by default. Either way their updates run after
+     * every actor's actions and every other actor's update, so that the results are the same (see
+     * {@link ParallelUpdate}). Off by default.
+     *
+     * @param parallelUpdate
+     *         whether independent actors update in parallel
+     * @return this stage to allow for method chaining
+     */
+    public BaseStage setParallelUpdate(boolean parallelUpdate) {
+        this.parallelUpdate.setParallel(parallelUpdate);
+        return this;
+    }
+    
+    /**
+     * Sets the blend function of the batch for a draw of an animation with or without
+     * {@link com.core.base.actor.BaseAnimation#isPremultipliedAlpha() premultiplied alpha}, while this stage draws a
+     * child of its root that draws nothing but animations. The blend function is only switched, flushing the batch,
+     * when it differs from the previous draw's, and the batch's own blend function is restored before anything else is
+     * drawn.
+     *
+     * @param batch
+     *         the batch the animation is drawn with
+     * @param premultipliedAlpha
+     *         whether the drawn frame has premultiplied alpha
+     * @return {@code false} if the stage is drawing something else, and the caller must set and restore the blend
+     * function itself
+     */
+    public boolean setPremultipliedBlend(@NotNull Batch batch, boolean premultipliedAlpha) {
+        if (!blendGrouped) return false;
+        if (premultipliedAlpha == premultipliedBlend) return true;
+        if (!premultipliedAlpha) {
+            restoreBlend(batch);
+            return true;
+        }
+        blendSrcFunc = batch.getBlendSrcFunc();
+        blendDstFunc = batch.getBlendDstFunc();
+        blendSrcFuncAlpha = batch.getBlendSrcFuncAlpha();
+        blendDstFuncAlpha = batch.getBlendDstFuncAlpha();
+        batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        premultipliedBlend = true;
+        return true;
+    }
+    
+    private void restoreBlend(@NotNull Batch batch) {
+        if (!premultipliedBlend) return;
+        batch.setBlendFunctionSeparate(blendSrcFunc, blendDstFunc, blendSrcFuncAlpha, blendDstFuncAlpha);
+        premultipliedBlend = false;
+    }
+    
+    /**
+     * Returns the layer the {@link BaseActor#setStatic static} actors of this stage are baked into, creating it on
+     * first use.
+     *
+     * @return the {@link StaticLayer} of this stage
+     */
+    public @NotNull StaticLayer getStaticLayer() {
+        if (staticLayer == null) staticLayer = new StaticLayer();
+        return staticLayer;
+    }
+    
+    /**
+     * @return the queue sorting the draws of this stage, or {@code null} if actors are drawn in scene-graph order
+     */
+    public @Nullable RenderQueue getRenderQueue() { return renderQueue; }
+    
+    /**
+     * Sets whether the {@link BaseActor}s of this stage are drawn sorted by {@link BaseActor#getLayer() layer} and
+     * texture, through a {@link RenderQueue}, instead of in scene-graph order, so that the batch flushes less often.
+     * Other actors are still drawn in scene-graph order: the draws queued before an actor whose draws cannot be queued
+     * (one that is not a {@link BaseActor}, or a {@link Group} that scales or rotates its children) are submitted right
+     * before it. Off by default.
+     *
+     * @param renderQueueEnabled
+     *         whether to sort the draws
+     * @return this stage to allow for method chaining
+     */
+    public BaseStage setRenderQueueEnabled(boolean renderQueueEnabled) {
+        if (renderQueueEnabled != (renderQueue != null)) markDirty();
+        if (renderQueueEnabled && renderQueue == null) renderQueue = new RenderQueue();
+        else if (!renderQueueEnabled) renderQueue = null;
+        return this;
+    }
+    
+    /**
+     * @return how many draw calls the last {@link #draw()} made, the {@link #getStaticLayer() static layer}'s
+     * included, or {@code -1} if the batch is not a {@link SpriteBatch}
+     */
+    public int getRenderCalls() { return renderCalls; }
+    
+    /**
+     * @return how many times the texture changed between the queued draws of the last {@link #draw()}, or {@code -1}
+     * if the {@link #setRenderQueueEnabled render queue} is disabled
+     */
+    public int getTextureSwitches() { return renderQueue == null ? -1 : renderQueue.getTextureSwitches(); }
+    
+    /**
+     * Marks this stage as needing to be drawn again. {@link BaseActor}s mark their stage when their position, size,
+     * scale, rotation, visibility, color or animation frame (when {@link #isTrackingChanges() tracking changes})
+     * changes, and while they run actions; anything else that
+     * changes what is drawn should call this method.
+     */
+    public void markDirty() { dirty = true; }
+    
+    /**
+     * Sets whether the {@link BaseActor}s of this stage mark it dirty when their animation frame changes, which costs a
+     * frame lookup per animation per tick. Turned on and off by {@link BaseScreen#setRenderOnDemand}.
+     *
+     * @param trackingChanges
+     *         whether animation frame changes mark this stage dirty
+     * @return this stage to allow for method chaining
+     */
+    public BaseStage setTrackingChanges(boolean trackingChanges) {
+        this.trackingChanges = trackingChanges;
+        return this;
+    }
+    
+    public boolean isTrackingChanges() { return trackingChanges; }
+    
+    /**
+     * Returns whether anything drawn changed since the last call, the camera included, and starts tracking changes
+     * anew. Used by {@link BaseScreen#setRenderOnDemand render on demand}.
+     *
+     * @return {@code true} if the stage needs to be drawn again
+     */
+    public boolean pollDirty() {
+        Camera camera = getViewport().getCamera();
+        camera.update();
+        boolean changed = dirty || !Arrays.equals(camera.combined.val, lastCamera);
+        if (changed) System.arraycopy(camera.combined.val, 0, lastCamera, 0, lastCamera.length);
+        dirty = false;
+        return changed;
+    }
+    
+    /**
+     * @return the clock shared by the animations of this stage, or {@code null} if each animation counts its own time
+     */
+    public @Nullable AnimationClock getAnimationClock() { return animationClock; }
+    
+    /**
+     * Sets whether the animations of this stage's {@link BaseActor}s read their time from one shared
+     * {@link AnimationClock}, advanced once per {@link #act(float)}, instead of each counting its own time. Unlike an
+     * animation counting its own time, an animation on the shared clock keeps running while its actor is hidden. Off
+     * by default.
+     *
+     * @param sharedAnimationClock
+     *         whether the animations share a clock
+     * @return this stage to allow for method chaining
+     */
+    public BaseStage setSharedAnimationClock(boolean sharedAnimationClock) {
+        if (sharedAnimationClock == (animationClock != null)) return this;
+        animationClock = sharedAnimationClock ? new AnimationClock() : null;
+        AnimationClock.sync(getRoot());
+        return this;
+    }
+    
+    /**
+     * Runs one simulation tick: advances the {@link #getAnimationClock() shared animation clock}, if any, acts every
+     * actor, then runs the {@link #getParallelUpdate() update phase} of the independent actors.
+     */
+    @Override
+    public void act(float delta) {
+        tick++;
+        if (animationClock != null) animationClock.advance(delta);
+        super.act(delta);
+        parallelUpdate.run();
+    }
+    
+    /**
+     * Marks the actors inside the camera's view as visible, then draws the stage.
+     */
+    @Override
+    public void draw() {
+        Camera camera = getViewport().getCamera();
+        camera.update();
+        if (cullingEnabled) {
+            float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+            float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+            for (Vector3 point : camera.frustum.planePoints) {
+                minX = Math.min(minX, point.x);
+                minY = Math.min(minY, point.y);
+                maxX = Math.max(maxX, point.x);
+                maxY = Math.max(maxY, point.y);
+            }
+            drawnCount = grid.markVisible(minX, minY, maxX, maxY);
+        } else {
+            drawnCount = grid.markVisible(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY,
+                    Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+        }
+        culledCount = grid.size() - drawnCount;
+        if (staticLayer != null && getRoot().isVisible()) staticLayer.draw(camera.combined);
+        super.draw();
+        renderCalls = getBatch() instanceof SpriteBatch batch
+                ? batch.renderCalls + (staticLayer == null ? 0 : staticLayer.getRenderCalls()) : -1;
+    }
+    
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (staticLayer != null) staticLayer.dispose();
+    }
+}
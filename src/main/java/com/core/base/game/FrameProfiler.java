@@ -0,0 +1,272 @@
+package com.core.base.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.TimeUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * <p>Records, for each of the last {@link #getCapacity()} frames of a {@link BaseScreen}, the time spent in every
+ * {@link Phase} of {@link BaseScreen#render(float)}, the draw calls and texture switches of its {@link BaseStage}, the
+ * number of actors and the bytes allocated by the render thread, into fixed-size ring buffers, so that recording
+ * allocates nothing. {@link #getPercentile} summarizes any {@link Metric} over the recorded frames, and
+ * {@link #setOverlayVisible} draws the latest summary on screen.</p>
+ * <p>Enabled by {@link BaseScreen#setProfiling(boolean)}; a screen without a profiler does not measure anything.</p>
+ *
+ * @author Tamir Eliraz
+ */
+public class FrameProfiler implements Disposable {
+    /**
+     * The default number of frames recorded.
+     */
+    public static final int DEFAULT_CAPACITY = 600;
+    private static final long OVERLAY_REFRESH_MILLIS = 500;
+    
+    /**
+     * The phases of {@link BaseScreen#render(float)}, in order.
+     */
+    public enum Phase {
+        /**
+         * Publishing the keyboard snapshot.
+         */
+        INPUT,
+        /**
+         * Advancing queued asset loads.
+         */
+        LOAD,
+        /**
+         * Updating the camera.
+         */
+        CAMERA,
+        /**
+         * Running the simulation ticks: the movement system and {@code stage.act}.
+         */
+        ACT,
+        /**
+         * Clearing the screen.
+         */
+        CLEAR,
+        /**
+         * {@code stage.draw}, and the overlay.
+         */
+        DRAW
+    }
+    
+    /**
+     * The values recorded for every frame.
+     */
+    public enum Metric {
+        INPUT_NANOS, LOAD_NANOS, CAMERA_NANOS, ACT_NANOS, CLEAR_NANOS, DRAW_NANOS,
+        /**
+         * The time between the start and the end of the frame's {@link BaseScreen#render(float)}.
+         */
+        FRAME_NANOS,
+        RENDER_CALLS,
+        /**
+         * The texture switches of the queued draws, or {@code -1} without a render queue (see
+         * {@link BaseStage#getTextureSwitches()}).
+         */
+        TEXTURE_SWITCHES,
+        /**
+         * The number of actors directly in the stage.
+         */
+        ACTORS,
+        DRAWN_ACTORS,
+        CULLED_ACTORS,
+        /**
+         * The bytes allocated by the render thread during the frame, or {@code -1} if the JVM does not tell.
+         */
+        ALLOCATED_BYTES;
+        
+        private static final Metric[] VALUES = values();
+        
+        private static @NotNull Metric of(@NotNull Phase phase) { return VALUES[phase.ordinal()]; }
+    }
+    
+    private final int capacity;
+    /**
+     * One ring buffer of {@link #capacity} values per {@link Metric}.
+     */
+    private final long[][] samples;
+    private final long[] current;
+    private final long[] scratch;
+    private final com.sun.management.ThreadMXBean threads;
+    private int next;
+    private int size;
+    private long frameStart, phaseStart, allocatedAtStart;
+    private boolean overlayVisible;
+    private BitmapFont font;
+    private Matrix4 overlayProjection, stageProjection;
+    private final StringBuilder overlayText;
+    private long overlayRefreshed;
+    
+    public FrameProfiler() { this(DEFAULT_CAPACITY); }
+    
+    /**
+     * @param capacity
+     *         the number of frames recorded; older frames are overwritten
+     */
+    public FrameProfiler(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        samples = new long[Metric.VALUES.length][capacity];
+        current = new long[Metric.VALUES.length];
+        scratch = new long[capacity];
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        threads = bean instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported()
+                  && sun.isThreadAllocatedMemoryEnabled() ? sun : null;
+        overlayText = new StringBuilder(256);
+    }
+    
+    public int getCapacity() { return capacity; }
+    
+    /**
+     * @return the number of frames recorded so far, at most {@link #getCapacity()}
+     */
+    public int getFrameCount() { return size; }
+    
+    /**
+     * Starts recording a frame.
+     */
+    void beginFrame() {
+        Arrays.fill(current, 0);
+        frameStart = phaseStart = System.nanoTime();
+        allocatedAtStart = allocatedBytes();
+    }
+    
+    /**
+     * Ends a phase of the current frame, which started where the previous phase ended.
+     */
+    void endPhase(@NotNull Phase phase) {
+        long now = System.nanoTime();
+        current[Metric.of(phase).ordinal()] += now - phaseStart;
+        phaseStart = now;
+    }
+    
+    /**
+     * Ends the current frame, recording the counters of the given stage.
+     *
+     * @param drawn
+     *         whether the stage was drawn in this frame
+     */
+    void endFrame(@NotNull BaseStage stage, boolean drawn) {
+        current[Metric.FRAME_NANOS.ordinal()] = System.nanoTime() - frameStart;
+        current[Metric.RENDER_CALLS.ordinal()] = drawn ? stage.getRenderCalls() : 0;
+        current[Metric.TEXTURE_SWITCHES.ordinal()] = drawn ? stage.getTextureSwitches() : 0;
+        current[Metric.ACTORS.ordinal()] = stage.getRoot().getChildren().size;
+        current[Metric.DRAWN_ACTORS.ordinal()] = drawn ? stage.getDrawnCount() : 0;
+        current[Metric.CULLED_ACTORS.ordinal()] = drawn ? stage.getCulledCount() : 0;
+        long allocated = allocatedBytes();
+        current[Metric.ALLOCATED_BYTES.ordinal()] = allocated < 0 ? -1 : allocated - allocatedAtStart;
+        for (int metric = 0; metric < current.length; metric++) samples[metric][next] = current[metric];
+        next = (next + 1) % capacity;
+        size = Math.min(size + 1, capacity);
+    }
+    
+    private long allocatedBytes() { return threads == null ? -1 : threads.getCurrentThreadAllocatedBytes(); }
+    
+    /**
+     * @param metric
+     *         the metric
+     * @return the value of the metric in the last recorded frame, or {@code 0} if none was recorded
+     */
+    public long getLast(@NotNull Metric metric) {
+        return size == 0 ? 0 : samples[metric.ordinal()][(next - 1 + capacity) % capacity];
+    }
+    
+    /**
+     * Returns a percentile of a metric over the recorded frames, by the nearest-rank method.
+     *
+     * @param metric
+     *         the metric
+     * @param percentile
+     *         the percentile, from {@code 0} to {@code 100}, e.g. {@code 50}, {@code 95} or {@code 99}
+     * @return the value below which the given percentage of the recorded frames fall, or {@code 0} if no frame was
+     * recorded
+     */
+    public long getPercentile(@NotNull Metric metric, double percentile) {
+        if (size == 0) return 0;
+        System.arraycopy(samples[metric.ordinal()], 0, scratch, 0, size);
+        Arrays.sort(scratch, 0, size);
+        int rank = (int) Math.ceil(percentile / 100 * size);
+        return scratch[Math.max(0, Math.min(size - 1, rank - 1))];
+    }
+    
+    /**
+     * Forgets every recorded frame.
+     */
+    public void reset() {
+        next = size = 0;
+        for (long[] values : samples) Arrays.fill(values, 0);
+    }
+    
+    public boolean isOverlayVisible() { return overlayVisible; }
+    
+    /**
+     * @param overlayVisible
+     *         whether the p50/p95/p99 frame and phase times and the latest counters are drawn over the stage, in the
+     *         top left corner of the window
+     * @return this profiler to allow for method chaining
+     */
+    public FrameProfiler setOverlayVisible(boolean overlayVisible) {
+        this.overlayVisible = overlayVisible;
+        return this;
+    }
+    
+    /**
+     * Draws the overlay with the given batch, which must not be drawing. The text is rebuilt twice a second.
+     */
+    void drawOverlay(@NotNull Batch batch) {
+        if (font == null) {
+            font = new BitmapFont();
+            overlayProjection = new Matrix4();
+            stageProjection = new Matrix4();
+        }
+        if (TimeUtils.timeSinceMillis(overlayRefreshed) >= OVERLAY_REFRESH_MILLIS) {
+            overlayRefreshed = TimeUtils.millis();
+            buildOverlayText();
+        }
+        int height = Gdx.graphics.getHeight();
+        stageProjection.set(batch.getProjectionMatrix());
+        batch.setProjectionMatrix(overlayProjection.setToOrtho2D(0, 0, Gdx.graphics.getWidth(), height));
+        batch.begin();
+        font.setColor(Color.LIME);
+        font.draw(batch, overlayText, 8, height - 8);
+        batch.end();
+        batch.setProjectionMatrix(stageProjection);
+    }
+    
+    private void buildOverlayText() {
+        overlayText.setLength(0);
+        overlayText.append("frame ms  p50 ").append(millis(getPercentile(Metric.FRAME_NANOS, 50)))
+                .append("  p95 ").append(millis(getPercentile(Metric.FRAME_NANOS, 95)))
+                .append("  p99 ").append(millis(getPercentile(Metric.FRAME_NANOS, 99))).append('\n');
+        for (Phase phase : Phase.values()) {
+            Metric metric = Metric.of(phase);
+            overlayText.append(phase.name().toLowerCase()).append(" p50 ").append(millis(getPercentile(metric, 50)))
+                    .append("  p99 ").append(millis(getPercentile(metric, 99))).append('\n');
+        }
+        overlayText.append("render calls ").append(getLast(Metric.RENDER_CALLS))
+                .append("  switches ").append(getLast(Metric.TEXTURE_SWITCHES)).append('\n')
+                .append("actors ").append(getLast(Metric.ACTORS))
+                .append("  drawn ").append(getLast(Metric.DRAWN_ACTORS))
+                .append("  culled ").append(getLast(Metric.CULLED_ACTORS)).append('\n')
+                .append("allocated KB ").append(getLast(Metric.ALLOCATED_BYTES) / 1024);
+    }
+    
+    private static float millis(long nanos) { return Math.round(nanos / 10_000f) / 100f; }
+    
+    @Override
+    public void dispose() {
+        if (font != null) font.dispose();
+        font = null;
+    }
+}
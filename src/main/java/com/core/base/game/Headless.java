@@ -0,0 +1,59 @@
+package com.core.base.game;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/**
+ * <p>Support for running the library without a GL context, on the libGDX headless backend, e.g. to simulate bot
+ * matches on servers without a GPU. In headless mode a {@link BaseScreen} only acts (see
+ * {@link BaseScreen#setHeadless}), and {@link com.core.handler.AssetManagerHandler AssetManagerHandler} reads only the
+ * dimensions of textures, without decoding or uploading them (see
+ * {@link com.core.handler.AssetManagerHandler#setHeadless AssetManagerHandler.setHeadless}).</p>
+ * <p>The headless backend leaves {@link Gdx#gl} unset; {@link #install()} sets it to a {@link GL20} that does nothing,
+ * so that the {@link com.badlogic.gdx.graphics.g2d.SpriteBatch SpriteBatch} of a stage and the {@link
+ * com.badlogic.gdx.graphics.Texture Texture} objects can still be created.</p>
+ *
+ * @author Tamir Eliraz
+ */
+public final class Headless {
+    private Headless() { }
+    
+    /**
+     * @return {@code true} if the running libGDX application is a headless one
+     */
+    public static boolean isHeadless() {
+        return Gdx.app != null && Gdx.app.getType() == Application.ApplicationType.HeadlessDesktop;
+    }
+    
+    /**
+     * Sets {@link Gdx#gl} and {@link Gdx#gl20} to a {@link GL20} that does nothing, unless they are already set. The
+     * shaders it compiles and links report success, and every other call returns zero.
+     */
+    public static void install() {
+        if (Gdx.gl != null) return;
+        Gdx.gl = Gdx.gl20 = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "glCreateShader", "glCreateProgram" -> 1;
+                    case "glGetShaderiv", "glGetProgramiv" -> {
+                        int parameter = (int) args[1];
+                        if (parameter == GL20.GL_COMPILE_STATUS || parameter == GL20.GL_LINK_STATUS)
+                            ((IntBuffer) args[2]).put(0, 1);
+                        yield null;
+                    }
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+    
+    private static Object defaultValue(@NotNull Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == float.class) return 0f;
+        if (type == long.class) return 0L;
+        return 0;
+    }
+}
@@ -1,18 +1,76 @@
 package com.core.base.group;
 
 import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.core.base.actor.ActorPool;
 import com.core.base.actor.BaseActor4D;
+import com.core.base.actor.PoolableActor;
 import com.core.base.enums.Direction;
+import com.core.base.game.BaseStage;
+import com.core.handler.AssetManagerHandler;
 import com.core.handler.InputProcessorAdapter;
+import com.core.handler.InputRouter;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
-public abstract class BaseGroup extends Group implements InputProcessorAdapter {
-    private HashMap<? extends BaseBodyPart, BaseActor4D> bodyParts;
+import static com.badlogic.gdx.graphics.Texture.TextureFilter.Linear;
+
+public abstract class BaseGroup extends Group implements InputProcessorAdapter, PoolableActor {
+    /**
+     * The priority of the loads prefetching the sprite sheets of hidden body parts, lower than any other priority so
+     * that they never delay a texture needed on screen.
+     */
+    public static final int PREFETCH_PRIORITY = Integer.MIN_VALUE;
+    /**
+     * The default time, in seconds, a body part hidden by default stays built after being hidden again (see
+     * {@link #setHiddenBodyPartTimeout(float)}).
+     */
+    public static final float DEFAULT_HIDDEN_BODY_PART_TIMEOUT = 10;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    /**
+     * The built body parts of this group; body parts hidden by default are built on first use (see
+     * {@link #switchBodyPartVisibility}).
+     */
+    private final HashMap<BaseBodyPart, BaseActor4D> bodyParts;
+    /**
+     * The {@link #values() body part types} of this group, taken once so that {@link #reset()} allocates nothing.
+     */
+    private final BaseBodyPart[] bodyPartTypes;
+    /**
+     * The index of each body part type in {@link #bodyPartTypes}.
+     */
+    private final ObjectIntMap<BaseBodyPart> bodyPartIndices;
+    /**
+     * The time, in seconds, each built body part hidden by default has been hidden for, by index in
+     * {@link #bodyPartTypes}.
+     */
+    private final float[] hiddenTimes;
+    /**
+     * The position the first body parts are built at; later ones are built where the built ones are.
+     */
+    private final float bodyX, bodyY;
+    private Direction direction;
+    /**
+     * Whether the body parts animate right after construction, and after {@link #reset()}.
+     */
+    private final boolean autoMotion;
+    private boolean animating;
+    private float hiddenBodyPartTimeout;
+    /**
+     * Whether this group takes input, subscribed to every {@link Direction} on the {@link InputRouter}.
+     */
+    private final boolean takesInput;
+    /**
+     * The {@link ActorPool} this group was obtained from, or {@code null} if it is not pooled.
+     */
+    private ActorPool<?> pool;
     
     public BaseGroup(float x, float y, Stage stage) {
         this(x, y, stage, null, false);
@@ -23,29 +81,254 @@ public abstract class BaseGroup extends Group implements InputProcessorAdapter {
     }
     
     public BaseGroup(float x, float y, Stage stage, InputMultiplexer inputMultiplexer, boolean autoMotion) {
-        bodyParts = new HashMap<>() {{
-            for (BaseBodyPart bodyPart : BaseGroup.this.values()) {
-                BaseActor4D body = addBodyPart(x, y, bodyPart.fileName(), inputMultiplexer);
-                put(bodyPart, body);
-                addActor(body);
-                body.setVisible(bodyPart.getDefaultVisibility());
-                if (autoMotion) body.startAnimation();
-            }
-        }};
+        bodyPartTypes = values();
+        bodyPartIndices = new ObjectIntMap<>(bodyPartTypes.length);
+        for (int index = 0; index < bodyPartTypes.length; index++) bodyPartIndices.put(bodyPartTypes[index], index);
+        bodyParts = new HashMap<>();
+        hiddenTimes = new float[bodyPartTypes.length];
+        bodyX = x;
+        bodyY = y;
+        direction = Direction.RIGHT;
+        this.autoMotion = autoMotion;
+        animating = autoMotion;
+        hiddenBodyPartTimeout = DEFAULT_HIDDEN_BODY_PART_TIMEOUT;
+        AssetManagerHandler handler = AssetManagerHandler.getInstance();
+        boolean packed = packBodyParts();
+        if (packed)
+            handler.packAtlas(getClass().getName(), Linear,
+                    Arrays.stream(bodyPartTypes).map(BaseBodyPart::fileName).toArray(String[]::new));
+        for (int index = 0; index < bodyPartTypes.length; index++) {
+            BaseBodyPart bodyPart = bodyPartTypes[index];
+            if (bodyPart.getDefaultVisibility()) buildBodyPart(index);
+            else if (!packed && !handler.isLoaded(bodyPart.fileName()))
+                handler.loadTextureAsync(bodyPart.fileName(), PREFETCH_PRIORITY);
+        }
         if (stage != null) stage.addActor(this);
-        if (inputMultiplexer != null) inputMultiplexer.addProcessor(this);
+        takesInput = inputMultiplexer != null;
+        if (takesInput) InputRouter.getInstance().attach(inputMultiplexer).subscribe(this, DIRECTIONS);
     }
     
-    @Contract("_, _, _, _ -> new")
-    private @NotNull BaseActor4D addBodyPart(float x, float y, String filename, InputMultiplexer inputMultiplexer) {
-        return new BaseActor4D(x, y, null, inputMultiplexer, 0.1f, filename, 9,
+    @Contract("_, _, _ -> new")
+    private @NotNull BaseActor4D addBodyPart(float x, float y, String filename) {
+        return new BaseActor4D(x, y, null, null, 0.1f, filename, 9,
                 Direction.UP, Direction.LEFT,
                 Direction.DOWN, Direction.RIGHT);
     }
     
+    /**
+     * Builds the body part at the given index of {@link #bodyPartTypes}, visible, where the built body parts are,
+     * facing the direction of this group and animating if the group is, and adds it in front of the body parts before
+     * it and behind those after it.
+     */
+    private @NotNull BaseActor4D buildBodyPart(int index) {
+        BaseBodyPart bodyPart = bodyPartTypes[index];
+        BaseActor4D built = null;
+        for (int i = 0; i < bodyPartTypes.length && built == null; i++) built = bodyParts.get(bodyPartTypes[i]);
+        BaseActor4D body = built == null ? addBodyPart(bodyX, bodyY, bodyPart.fileName())
+                : addBodyPart(built.getX(), built.getY(), bodyPart.fileName());
+        BaseActor4D next = null;
+        for (int i = index + 1; i < bodyPartTypes.length && next == null; i++) next = bodyParts.get(bodyPartTypes[i]);
+        if (next != null) addActorBefore(next, body);
+        else addActor(body);
+        bodyParts.put(bodyPart, body);
+        hiddenTimes[index] = 0;
+        if (body.getAnimationSet().hasDirection(direction)) body.setDirection(direction);
+        if (animating) body.startAnimation();
+        body.markDirty();
+        return body;
+    }
+    
     protected abstract BaseBodyPart[] values();
     
+    /**
+     * Whether the sprite sheets of all the {@link #values() body parts} of this group type are packed into one shared
+     * atlas (see {@link AssetManagerHandler#packAtlas}), so a whole character is drawn without switching textures.
+     * The atlas is built once, by the first group of each type.
+     *
+     * @return {@code false} by default
+     */
+    protected boolean packBodyParts() { return false; }
+    
+    /**
+     * @return the time, in seconds, a body part hidden by default stays built after being hidden again
+     */
+    public float getHiddenBodyPartTimeout() { return hiddenBodyPartTimeout; }
+    
+    /**
+     * Sets how long a body part hidden by default (see {@link BaseBodyPart#getDefaultVisibility()}) stays built after
+     * being hidden again. Once the time is up, the body part is removed and disposed, releasing its sprite sheet, and
+     * is built again the next time it is shown.
+     *
+     * @param hiddenBodyPartTimeout
+     *         the time in seconds, or {@code 0} or less to keep hidden body parts forever;
+     *         {@value #DEFAULT_HIDDEN_BODY_PART_TIMEOUT} by default
+     * @return this group to allow for method chaining
+     */
+    public BaseGroup setHiddenBodyPartTimeout(float hiddenBodyPartTimeout) {
+        this.hiddenBodyPartTimeout = hiddenBodyPartTimeout;
+        return this;
+    }
+    
+    /**
+     * @return {@code true} if the given body part is built, {@code false} if it is hidden by default and was never
+     * shown, or was dropped after being hidden for {@link #getHiddenBodyPartTimeout()}
+     */
+    public boolean isBodyPartBuilt(BaseBodyPart bodyPart) { return bodyParts.containsKey(bodyPart); }
+    
+    /**
+     * {@inheritDoc} Also drops the body parts hidden by default that have been hidden for longer than
+     * {@link #getHiddenBodyPartTimeout()}.
+     */
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        if (hiddenBodyPartTimeout <= 0) return;
+        for (int index = 0; index < bodyPartTypes.length; index++) {
+            BaseBodyPart bodyPart = bodyPartTypes[index];
+            if (bodyPart.getDefaultVisibility()) continue;
+            BaseActor4D body = bodyParts.get(bodyPart);
+            if (body == null || body.isVisible()) continue;
+            if ((hiddenTimes[index] += delta) < hiddenBodyPartTimeout) continue;
+            bodyParts.remove(bodyPart);
+            body.remove();
+            body.dispose();
+        }
+    }
+    
+    @Override
+    protected void positionChanged() {
+        super.positionChanged();
+        if (getStage() instanceof BaseStage stage) stage.markDirty();
+    }
+    
+    @Override
+    public void setVisible(boolean visible) {
+        if (visible != isVisible() && getStage() instanceof BaseStage stage) stage.markDirty();
+        super.setVisible(visible);
+    }
+    
+    /**
+     * Turns the group to the given direction when a direction key is pressed, broadcasting it to every body part.
+     *
+     * @param keycode
+     *         {@inheritDoc}
+     * @return {@inheritDoc} – and {@code false} by default
+     */
+    @Override
+    public boolean keyDown(int keycode) {
+        Direction direction = Direction.getByKey(keycode);
+        if (direction != null) setDirection(direction).startAnimation();
+        return false;
+    }
+    
+    /**
+     * Stops the animation of every body part when a direction key is released.
+     *
+     * @param keycode
+     *         {@inheritDoc}
+     * @return {@inheritDoc} – and {@code false} by default
+     */
+    @Override
+    public boolean keyUp(int keycode) {
+        if (Direction.getByKey(keycode) != null) stopAnimation();
+        return false;
+    }
+    
+    /**
+     * Turns every body part of this group to the given {@link Direction}.
+     *
+     * @param direction
+     *         the new {@link Direction}
+     * @return this group to allow for method chaining
+     */
+    public BaseGroup setDirection(@NotNull Direction direction) {
+        this.direction = direction;
+        for (BaseActor4D body : bodyParts.values())
+            if (body.getAnimationSet().hasDirection(direction)) body.setDirection(direction);
+        return this;
+    }
+    
+    public BaseGroup startAnimation() {
+        animating = true;
+        for (BaseActor4D body : bodyParts.values()) body.startAnimation();
+        return this;
+    }
+    
+    public BaseGroup stopAnimation() {
+        animating = false;
+        for (BaseActor4D body : bodyParts.values()) body.stopAnimation();
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc} Also unsubscribes this group from the {@link InputRouter} while it is back in the pool, so that free
+     * groups ignore the input, and subscribes it again when it is obtained.
+     */
+    @Override
+    public void setPool(@Nullable ActorPool<?> pool) {
+        this.pool = pool;
+        if (!takesInput) return;
+        if (pool == null) InputRouter.getInstance().unsubscribe(this, DIRECTIONS);
+        else InputRouter.getInstance().subscribe(this, DIRECTIONS);
+    }
+    
+    @Override
+    public @Nullable ActorPool<?> getPool() { return pool; }
+    
+    /**
+     * {@inheritDoc} – and returns this group to the {@link ActorPool} it was obtained from, if any.
+     */
+    @Override
+    public boolean remove() {
+        boolean removed = super.remove();
+        if (pool != null) pool.release(this);
+        return removed;
+    }
+    
+    /**
+     * Brings this group back to its state right after construction, keeping its position: clears its actions, resets
+     * its color, scale and rotation, {@link BaseActor4D#reset() resets} every built body part and restores their
+     * {@link BaseBodyPart#getDefaultVisibility() default visibility}, and animates them only if they were animating
+     * right after construction.
+     */
+    @Override
+    public void reset() {
+        clearActions();
+        setVisible(true);
+        setColor(Color.WHITE);
+        setScale(1);
+        setRotation(0);
+        direction = Direction.RIGHT;
+        animating = autoMotion;
+        for (BaseBodyPart bodyPart : bodyPartTypes) {
+            BaseActor4D body = bodyParts.get(bodyPart);
+            if (body == null) continue;
+            body.reset();
+            if (!animating) body.stopAnimation();
+            body.setVisible(bodyPart.getDefaultVisibility());
+        }
+    }
+    
+    /**
+     * Disposes every body part of this group, releasing their sprite sheets, and unsubscribes the group from the
+     * {@link InputRouter}.
+     */
+    public void dispose() {
+        for (BaseActor4D body : bodyParts.values()) body.dispose();
+        InputRouter.getInstance().unsubscribe(this);
+    }
+    
+    /**
+     * Shows the given body part if it is hidden, and hides it otherwise. A body part hidden by default is built the
+     * first time it is shown; its sprite sheet was prefetched when the group was constructed.
+     */
     protected <BodyPart extends BaseBodyPart> void switchBodyPartVisibility(BodyPart bodyPart) {
-        bodyParts.get(bodyPart).setVisible(!bodyParts.get(bodyPart).isVisible());
+        BaseActor4D body = bodyParts.get(bodyPart);
+        if (body == null) {
+            buildBodyPart(bodyPartIndices.get(bodyPart, -1));
+            return;
+        }
+        body.setVisible(!body.isVisible());
+        if (body.isVisible()) hiddenTimes[bodyPartIndices.get(bodyPart, -1)] = 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package com.core.handler;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * <p>A single-file archive of assets, memory-mapped as a whole when opened, so that reading any of its files costs no
+ * system call and no seek: {@link #slice(String)} returns a view of the mapped file, which the loaders read without
+ * copying it. Mounted on {@link AssetManagerHandler} (see {@link AssetManagerHandler#mountBundle}), the files of a
+ * bundle are resolved by the {@link com.badlogic.gdx.assets.AssetManager AssetManager} in place of the loose files of
+ * the same name.</p>
+ * <p>A bundle starts with an index: a magic number, a version, the number of files, and the name, offset and length of
+ * each file; the contents of the files follow, one after the other. Bundles are written by {@link #pack} (see
+ * {@code gradle packAssets}).</p>
+ *
+ * @author Tamir Eliraz
+ * @see BundleFileHandleResolver
+ */
+public class AssetBundle implements Disposable {
+    /**
+     * The extension of bundle files.
+     */
+    public static final String FILE_EXTENSION = ".bundle";
+    private static final int MAGIC = 0x42474142;
+    private static final int VERSION = 1;
+    private final File file;
+    private MappedByteBuffer buffer;
+    private final HashMap<String, Entry> entries;
+    
+    private record Entry(int offset, int length) { }
+    
+    /**
+     * Opens and maps a bundle file.
+     *
+     * @param file
+     *         the bundle file, which must be a file on the file system (not a classpath resource)
+     * @throws GdxRuntimeException
+     *         if the file cannot be mapped or is not a bundle of a supported version
+     */
+    public AssetBundle(@NotNull FileHandle file) {
+        this.file = file.file();
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't map asset bundle: " + file, e);
+        }
+        if (buffer.getInt() != MAGIC) throw new GdxRuntimeException("Not an asset bundle: " + file);
+        int version = buffer.getShort() & 0xFFFF;
+        if (version != VERSION) throw new GdxRuntimeException("Unsupported asset bundle version " + version + ": " + file);
+        int count = buffer.getInt();
+        entries = new HashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(name);
+            entries.put(new String(name, StandardCharsets.UTF_8), new Entry(buffer.getInt(), buffer.getInt()));
+        }
+    }
+    
+    /**
+     * @return the bundle file on the file system
+     */
+    public File getFile() { return file; }
+    
+    /**
+     * @param name
+     *         the name of a file, with {@code /} separators, as passed to {@link #pack}'s directory
+     * @return {@code true} if this bundle holds the file
+     */
+    public boolean contains(String name) { return entries.containsKey(name); }
+    
+    /**
+     * @return the number of files in this bundle
+     */
+    public int size() { return entries.size(); }
+    
+    /**
+     * Returns the contents of a file of this bundle, as a read-only view of the mapped bundle. The view is direct, so
+     * it can be handed to native code, e.g. {@link com.badlogic.gdx.graphics.Pixmap#Pixmap(ByteBuffer, int, int)},
+     * without copying.
+     *
+     * @param name
+     *         the name of the file
+     * @return the contents of the file, from position {@code 0} to its length, or {@code null} if this bundle does not
+     * hold the file
+     */
+    public @Nullable ByteBuffer slice(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null) return null;
+        if (buffer == null) throw new GdxRuntimeException("Asset bundle is disposed: " + file);
+        return buffer.slice(entry.offset(), entry.length()).asReadOnlyBuffer();
+    }
+    
+    /**
+     * @param name
+     *         the name of a file
+     * @return the length of the file in bytes, or {@code 0} if this bundle does not hold the file
+     */
+    public long length(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? 0 : entry.length();
+    }
+    
+    /**
+     * Packs every file under a directory into a bundle, each named by its path relative to the directory, with
+     * {@code /} separators.
+     *
+     * @param directory
+     *         the directory to pack
+     * @param bundle
+     *         the bundle file to write
+     * @return the number of files packed
+     * @throws IOException
+     *         if a file cannot be read, or the bundle cannot be written
+     */
+    public static int pack(@NotNull Path directory, @NotNull Path bundle) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream index = new DataOutputStream(indexBytes);
+        List<byte[]> names = new ArrayList<>(files.size());
+        int headerLength = Integer.BYTES + Short.BYTES + Integer.BYTES;
+        for (Path path : files) {
+            byte[] name = directory.relativize(path).toString().replace(File.separatorChar, '/')
+                    .getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            headerLength += Short.BYTES + name.length + Integer.BYTES * 2;
+        }
+        long offset = headerLength;
+        index.writeInt(MAGIC);
+        index.writeShort(VERSION);
+        index.writeInt(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            long length = Files.size(files.get(i));
+            if (offset + length > Integer.MAX_VALUE) throw new IOException("Asset bundle exceeds 2 GB: " + bundle);
+            index.writeShort(names.get(i).length);
+            index.write(names.get(i));
+            index.writeInt((int) offset);
+            index.writeInt((int) length);
+            offset += length;
+        }
+        if (bundle.getParent() != null) Files.createDirectories(bundle.getParent());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(bundle))) {
+            indexBytes.writeTo(out);
+            for (Path path : files) Files.copy(path, out);
+        }
+        return files.size();
+    }
+    
+    /**
+     * Unmaps nothing explicitly (the mapping is released when garbage collected), but makes this bundle unusable.
+     */
+    @Override
+    public void dispose() { buffer = null; }
+}
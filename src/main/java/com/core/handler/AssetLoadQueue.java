@@ -0,0 +1,133 @@
+package com.core.handler;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.core.jfr.AssetLoadEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A priority queue of {@link Texture} loads that feeds the {@link AssetManager} one asset at a time, so that a load
+ * requested with a higher priority always starts next, and that runs for a bounded time per {@link #update(int) update}.
+ * Used by {@link AssetManagerHandler}; all methods must be called from the render thread.
+ *
+ * @author Tamir Eliraz
+ */
+class AssetLoadQueue {
+    private final AssetManager assetManager;
+    private final PriorityQueue<Request> pending;
+    private final HashMap<String, Request> requests;
+    private Request active;
+    private long sequence;
+    
+    private static final class Request implements Comparable<Request> {
+        private final String fileName;
+        private final CompletableFuture<Texture> future;
+        private final AssetLoadEvent event;
+        private int priority;
+        private long sequence;
+        
+        private Request(String fileName) {
+            this.fileName = fileName;
+            future = new CompletableFuture<>();
+            event = AssetLoadEvent.start(fileName);
+        }
+        
+        @Override
+        public int compareTo(@NotNull Request other) {
+            if (priority != other.priority) return Integer.compare(other.priority, priority);
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+    
+    AssetLoadQueue(AssetManager assetManager) {
+        this.assetManager = assetManager;
+        pending = new PriorityQueue<>();
+        requests = new HashMap<>();
+    }
+    
+    /**
+     * Queues a {@link Texture} load. Requesting a file that is already queued returns the same future, raising the
+     * priority of the request if the new one is higher.
+     */
+    CompletableFuture<Texture> load(String fileName, int priority) {
+        Request request = requests.get(fileName);
+        if (request == null) {
+            request = new Request(fileName);
+            request.priority = priority;
+            request.sequence = sequence++;
+            requests.put(fileName, request);
+            pending.add(request);
+        } else if (request != active && priority > request.priority) {
+            pending.remove(request);
+            request.priority = priority;
+            pending.add(request);
+        }
+        return request.future;
+    }
+    
+    boolean isQueued(String fileName) { return requests.containsKey(fileName); }
+    
+    boolean isEmpty() { return requests.isEmpty(); }
+    
+    /**
+     * Advances the queued loads for at most {@code budgetMillis} milliseconds, completing the futures of every
+     * {@link Texture} that finished loading.
+     *
+     * @return {@code true} if nothing is left to load
+     */
+    boolean update(int budgetMillis) {
+        long end = TimeUtils.millis() + budgetMillis;
+        do {
+            if (active == null) {
+                active = pending.poll();
+                if (active != null && !assetManager.isLoaded(active.fileName, Texture.class))
+                    assetManager.load(active.fileName, Texture.class);
+            }
+            boolean done;
+            try {
+                done = assetManager.update((int) Math.max(0, end - TimeUtils.millis()));
+            } catch (GdxRuntimeException e) {
+                if (active == null) throw e;
+                fail(e);
+                continue;
+            }
+            if (active != null && assetManager.isLoaded(active.fileName, Texture.class)) complete();
+            if (done && active == null && pending.isEmpty()) return true;
+        } while (TimeUtils.millis() < end);
+        return false;
+    }
+    
+    private void complete() {
+        Request request = active;
+        active = null;
+        requests.remove(request.fileName);
+        Texture texture = assetManager.get(request.fileName, Texture.class);
+        if (request.event != null) request.event.finish(AssetManagerHandler.estimateBytes(texture));
+        request.future.complete(texture);
+    }
+    
+    private void fail(Throwable cause) {
+        Request request = active;
+        active = null;
+        requests.remove(request.fileName);
+        request.future.completeExceptionally(cause);
+    }
+    
+    /**
+     * Cancels every queued load, including the one in progress, so that no caller waits on a future of a disposed
+     * {@link AssetManager}.
+     */
+    void clear() {
+        for (Request request : pending) request.future.cancel(false);
+        if (active != null) active.future.cancel(false);
+        pending.clear();
+        requests.clear();
+        active = null;
+    }
+}
@@ -1,10 +1,29 @@
 package com.core.handler;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.core.base.actor.AnimationSet;
+import com.core.base.game.Headless;
+import com.core.jfr.AssetLoadEvent;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * <p>This is a singleton class designed to wrap the original class (see {@link AssetManager}) with a simple
@@ -15,10 +34,74 @@ import org.jetbrains.annotations.NotNull;
  * @author Tamir Eliraz
  */
 public class AssetManagerHandler {
-    private final AssetManager assetManager;
+    /**
+     * The width and height of every page of a packed {@link TextureAtlas} (see {@link #packAtlas}).
+     * Sprite sheets larger than a page are left unpacked.
+     */
+    public static final int ATLAS_PAGE_SIZE = 2048;
+    private static final int ATLAS_PADDING = 2;
+    /**
+     * The priority of the load queued for a missing {@link Texture} when {@link #isBlockingFallback()} is off,
+     * higher than any other priority so that the placeholder is replaced as soon as possible.
+     */
+    public static final int MISSING_ASSET_PRIORITY = Integer.MAX_VALUE;
+    private final PipelineAssetManager assetManager;
+    private final BundleFileHandleResolver resolver;
+    private final AssetLoadQueue loadQueue;
+    private TextureLoadPipeline pipeline;
+    private final HashMap<String, TextureAtlas> atlases;
+    private final HashMap<String, TextureRegion> packedRegions;
+    /**
+     * The bookkeeping of every {@link Texture} file, by file name.
+     */
+    private final HashMap<String, TextureEntry> entries;
+    /**
+     * The same entries as {@link #entries}, indexed by their handle (see {@link #resolveHandle(String)}).
+     */
+    private TextureEntry[] registry;
+    private int registrySize;
+    private final ArrayList<Consumer<String>> evictionListeners;
+    private Texture placeholder;
+    private boolean blockingFallback;
+    private boolean headless;
+    private long textureBudget;
+    private long residentBytes;
+    private long hits, misses, evictions;
+    /**
+     * A counter incremented on every texture request, used to order the textures from least to most recently used.
+     */
+    private long useClock;
     private static AssetManagerHandler instance;
     
-    private AssetManagerHandler() { assetManager = new AssetManager(); }
+    private static final class TextureEntry {
+        private final String fileName;
+        private final int handle;
+        private Texture texture;
+        private int references;
+        private long bytes;
+        private long lastUsed;
+        
+        private TextureEntry(String fileName, int handle) {
+            this.fileName = fileName;
+            this.handle = handle;
+        }
+        
+        private boolean isResident() { return texture != null; }
+    }
+    
+    private AssetManagerHandler() {
+        resolver = new BundleFileHandleResolver(new InternalFileHandleResolver());
+        assetManager = new PipelineAssetManager(resolver);
+        loadQueue = new AssetLoadQueue(assetManager);
+        atlases = new HashMap<>();
+        packedRegions = new HashMap<>();
+        entries = new HashMap<>();
+        registry = new TextureEntry[64];
+        evictionListeners = new ArrayList<>();
+        blockingFallback = true;
+        textureBudget = Long.MAX_VALUE;
+        setHeadless(Headless.isHeadless());
+    }
     
     /**
      * @return the single instance of {@link AssetManagerHandler}
@@ -57,10 +140,17 @@ public class AssetManagerHandler {
      * @return an instance of this class to allow for method chaining
      */
     public AssetManagerHandler tryLoadTexture(String fileName, boolean waitForCompletion) {
-        if (!assetManager.isLoaded(fileName)) {
+        if (headless) {
+            loadHeadless(fileName);
+        } else if (pipeline != null && pipeline.isQueued(fileName)) {
+            if (waitForCompletion) pipeline.finish(fileName);
+        } else if (!assetManager.isLoaded(fileName)) {
             assetManager.load(fileName, Texture.class);
-            if (waitForCompletion)
-                assetManager.finishLoadingAsset(fileName);
+            if (waitForCompletion) {
+                AssetLoadEvent event = AssetLoadEvent.start(fileName);
+                Texture texture = track(fileName, assetManager.finishLoadingAsset(fileName));
+                if (event != null) event.setBlocking(true).finish(estimateBytes(texture));
+            }
         }
         return this;
     }
@@ -78,6 +168,8 @@ public class AssetManagerHandler {
     
     /**
      * Uploads an array of {@link Texture} files, optionally waiting for each upload to finish.
+     * When {@link #setDecodeThreads(int) parallel decoding} is on, the files are decoded concurrently, and uploaded
+     * either right away or by {@link #update(int)} if not waiting.
      *
      * @param fileNames
      *         an array of {@link Texture} file names to upload
@@ -86,27 +178,325 @@ public class AssetManagerHandler {
      * @return an instance of this class to allow for method chaining
      */
     public AssetManagerHandler tryLoadTexture(String @NotNull [] fileNames, boolean waitForCompletion) {
-        for (String fileName : fileNames) tryLoadTexture(fileName, waitForCompletion);
+        if (pipeline == null || headless) {
+            for (String fileName : fileNames) tryLoadTexture(fileName, waitForCompletion);
+            return this;
+        }
+        for (String fileName : fileNames) loadTextureAsync(fileName, 0);
+        if (waitForCompletion) pipeline.finish();
+        return this;
+    }
+    
+    /**
+     * Sets how many worker threads decode textures in parallel. With one or more threads, the loads of
+     * {@link #loadTextureAsync} and of {@link #tryLoadTexture(String[], boolean)} decode on the workers, and the
+     * decoded textures are uploaded to the GPU on the render thread within the {@link #update(int)} budget.
+     * With {@code 0} (the default), the {@link AssetManager} loads them on its single loading thread.
+     * Loads in progress are finished before the workers are replaced.
+     *
+     * @param threads
+     *         the number of decoding threads, or {@code 0} to turn parallel decoding off
+     * @return an instance of this class to allow for method chaining
+     */
+    public AssetManagerHandler setDecodeThreads(int threads) {
+        if (pipeline != null) {
+            pipeline.finish();
+            pipeline.dispose();
+            pipeline = null;
+        }
+        if (threads > 0) pipeline = new TextureLoadPipeline(assetManager, threads);
+        return this;
+    }
+    
+    /**
+     * Queues a {@link Texture} file for loading without waiting for it; the load is advanced by {@link #update(int)}.
+     * Files queued with a higher priority are loaded first, and files of the same priority in the order they were
+     * queued.
+     *
+     * @param fileName
+     *         the name of the {@link Texture} file to load
+     * @param priority
+     *         the priority of the load, higher loads first
+     * @return a future completed on the render thread with the loaded {@link Texture}
+     */
+    public CompletableFuture<Texture> loadTextureAsync(String fileName, int priority) {
+        if (assetManager.isLoaded(fileName, Texture.class))
+            return CompletableFuture.completedFuture(assetManager.get(fileName, Texture.class));
+        if (headless) return CompletableFuture.completedFuture(loadHeadless(fileName));
+        if (Gdx.graphics != null) Gdx.graphics.requestRendering();
+        if (pipeline != null && !loadQueue.isQueued(fileName))
+            return pipeline.load(fileName, priority).thenApply(texture -> track(fileName, texture));
+        return loadQueue.load(fileName, priority).thenApply(texture -> track(fileName, texture));
+    }
+    
+    /**
+     * Queues a {@link Texture} file for loading without waiting for it (see {@link #loadTextureAsync(String, int)}).
+     *
+     * @param fileName
+     *         the name of the {@link Texture} file to load
+     * @param priority
+     *         the priority of the load, higher loads first
+     * @param callback
+     *         called on the render thread with the loaded {@link Texture}
+     * @return an instance of this class to allow for method chaining
+     */
+    public AssetManagerHandler loadTextureAsync(String fileName, int priority, @NotNull Consumer<Texture> callback) {
+        loadTextureAsync(fileName, priority).thenAccept(callback);
         return this;
     }
     
+    /**
+     * Advances the queued loads, spending at most {@code budgetMillis} milliseconds. Should be called once per frame
+     * from the render thread; {@link com.core.base.game.BaseScreen BaseScreen} does so before acting.
+     *
+     * @param budgetMillis
+     *         the maximum time, in milliseconds, to spend loading
+     * @return {@code true} if nothing is left to load
+     */
+    public boolean update(int budgetMillis) {
+        if (pipeline == null) return loadQueue.update(budgetMillis);
+        long start = TimeUtils.millis();
+        boolean uploaded = pipeline.update(budgetMillis);
+        return loadQueue.update((int) Math.max(0, budgetMillis - (TimeUtils.millis() - start))) && uploaded;
+    }
+    
+    /**
+     * @return {@code true} if any load queued by {@link #loadTextureAsync} has not finished yet
+     */
+    public boolean isLoading() { return !loadQueue.isEmpty() || pipeline != null && !pipeline.isEmpty(); }
+    
+    /**
+     * @param fileName
+     *         the name of a {@link Texture} file
+     * @return {@code true} if the file is loaded, or packed into a shared atlas (see {@link #packAtlas})
+     */
+    public boolean isLoaded(String fileName) {
+        return packedRegions.containsKey(fileName) || assetManager.isLoaded(fileName, Texture.class);
+    }
+    
+    /**
+     * @return whether {@link #getTexture(String)} waits for a missing {@link Texture} to load ({@code true} by
+     * default), or queues it and returns the {@link #getPlaceholder() placeholder} instead
+     */
+    public boolean isBlockingFallback() { return blockingFallback; }
+    
+    /**
+     * Sets whether {@link #getTexture(String)} waits for a missing {@link Texture} to load. Turning it off avoids
+     * stalling the render thread on a PNG decode in the middle of gameplay: the missing texture is queued with
+     * {@link #MISSING_ASSET_PRIORITY} and the {@link #getPlaceholder() placeholder} is returned until it is loaded.
+     *
+     * @param blockingFallback
+     *         {@code true} to wait for missing textures, {@code false} to return the placeholder
+     * @return an instance of this class to allow for method chaining
+     */
+    public AssetManagerHandler setBlockingFallback(boolean blockingFallback) {
+        this.blockingFallback = blockingFallback;
+        return this;
+    }
+    
+    /**
+     * @return whether textures are loaded in headless mode (see {@link #setHeadless(boolean)})
+     */
+    public boolean isHeadless() { return headless; }
+    
+    /**
+     * Sets whether textures are loaded in headless mode, in which only the dimensions of each file are read, from its
+     * header, and nothing is decoded or uploaded to the GPU, so that actors are still sized by their sprite sheets
+     * without a GL context. Every load then finishes right away, and {@link #packAtlas} does nothing. On by default on
+     * the libGDX headless backend; turning it on sets {@link Gdx#gl} to a GL that does nothing if it is not set (see
+     * {@link Headless#install()}). Textures that are already loaded are kept as they are.
+     *
+     * @param headless
+     *         whether to load textures in headless mode
+     * @return an instance of this class to allow for method chaining
+     */
+    public AssetManagerHandler setHeadless(boolean headless) {
+        this.headless = headless;
+        if (headless) Headless.install();
+        return this;
+    }
+    
+    private Texture loadHeadless(String fileName) {
+        if (!assetManager.isLoaded(fileName, Texture.class)) {
+            FileHandle file = assetManager.getFileHandleResolver().resolve(fileName);
+            assetManager.addAsset(fileName, Texture.class, new Texture(new HeadlessTextureData(file)));
+        }
+        return track(fileName, assetManager.get(fileName, Texture.class));
+    }
+    
+    /**
+     * @return the {@link PixelCache} serving the texture loads, or {@code null} if there is none
+     */
+    public PixelCache getPixelCache() { return assetManager.getPixelCache(); }
+    
+    /**
+     * Sets the on-disk cache of decoded images serving the texture loads (see {@link PixelCache}): every texture
+     * loaded with the default format and no mipmaps is then uploaded from the cache when it holds the current version
+     * of the file, and decoded and written to the cache otherwise. Off by default.
+     *
+     * @param pixelCache
+     *         the cache, e.g. {@code new PixelCache(Gdx.files.local(".cache/pixels"), PixelCache.DEFAULT_MAX_BYTES)},
+     *         or {@code null} to decode every texture
+     * @return an instance of this class to allow for method chaining
+     */
+    public AssetManagerHandler setPixelCache(@Nullable PixelCache pixelCache) {
+        assetManager.setPixelCache(pixelCache);
+        return this;
+    }
+    
+    /**
+     * Mounts an {@link AssetBundle}: from now on, the files it holds are loaded from the memory-mapped bundle, in place
+     * of the loose files of the same name. Textures that are already loaded are kept as they are.
+     *
+     * @param bundleFile
+     *         the bundle file, written by {@code gradle packAssets}, which must be a file on the file system
+     * @return the mounted bundle, to be passed to {@link #unmountBundle(AssetBundle)}
+     * @throws GdxRuntimeException
+     *         if the file is not a bundle
+     */
+    public AssetBundle mountBundle(@NotNull FileHandle bundleFile) {
+        AssetBundle bundle = new AssetBundle(bundleFile);
+        resolver.mount(bundle);
+        return bundle;
+    }
+    
+    /**
+     * Unmounts and disposes an {@link AssetBundle} mounted by {@link #mountBundle(FileHandle)}. Textures already
+     * loaded from it are kept.
+     *
+     * @return an instance of this class to allow for method chaining
+     */
+    public AssetManagerHandler unmountBundle(@NotNull AssetBundle bundle) {
+        if (resolver.unmount(bundle)) bundle.dispose();
+        return this;
+    }
+    
+    /**
+     * @return the transparent 1x1 {@link Texture} returned in place of missing textures
+     */
+    public Texture getPlaceholder() {
+        if (placeholder == null) {
+            Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+            pixmap.setColor(Color.CLEAR);
+            pixmap.fill();
+            placeholder = new Texture(pixmap);
+            pixmap.dispose();
+        }
+        return placeholder;
+    }
+    
+    /**
+     * @param texture
+     *         a {@link Texture}
+     * @return {@code true} if the texture is the {@link #getPlaceholder() placeholder}
+     */
+    public boolean isPlaceholder(Texture texture) { return texture != null && texture == placeholder; }
+    
     /**
      * Returns the {@link Texture} associated with the given file name if it exists.
-     * If the texture is not already loaded, it attempts to load it before returning.
+     * If the texture is not already loaded, it attempts to load it before returning, or, when
+     * {@link #isBlockingFallback()} is off, queues it for loading and returns the
+     * {@link #getPlaceholder() placeholder}.
      *
      * @param fileName
      *         the name of the {@link Texture} file
      * @return the {@link Texture} associated with the specified file name, loading it if necessary
      */
     public Texture getTexture(String fileName) {
-        Texture res;
-        try {
-            res = assetManager.get(fileName, Texture.class);
-        } catch (GdxRuntimeException ignored) {
-            tryLoadTexture(fileName);
-            res = assetManager.get(fileName, Texture.class);
+        TextureEntry entry = entry(fileName);
+        if (entry.isResident()) {
+            hits++;
+            entry.lastUsed = ++useClock;
+            return entry.texture;
+        }
+        return load(entry);
+    }
+    
+    /**
+     * The slow path of {@link #getTexture(String)} and {@link #getTexture(int)}, for a texture that is not resident.
+     */
+    private Texture load(@NotNull TextureEntry entry) {
+        misses++;
+        if (assetManager.isLoaded(entry.fileName, Texture.class))
+            return track(entry.fileName, assetManager.get(entry.fileName, Texture.class));
+        if (headless) return loadHeadless(entry.fileName);
+        if (!blockingFallback) {
+            loadTextureAsync(entry.fileName, MISSING_ASSET_PRIORITY);
+            return getPlaceholder();
         }
-        return res;
+        tryLoadTexture(entry.fileName);
+        return track(entry.fileName, assetManager.get(entry.fileName, Texture.class));
+    }
+    
+    /**
+     * Resolves a {@link Texture} file name to a compact handle, once, so that the texture can then be looked up with
+     * {@link #getTexture(int)} without hashing the name. The handle stays valid for the lifetime of this class, even
+     * if the texture is evicted and loaded again. Does not load the texture.
+     *
+     * @param fileName
+     *         the name of the {@link Texture} file
+     * @return the handle of the file
+     */
+    public int resolveHandle(String fileName) { return entry(fileName).handle; }
+    
+    /**
+     * @param handle
+     *         a handle returned by {@link #resolveHandle(String)}
+     * @return the name of the {@link Texture} file of the handle
+     */
+    public String getFileName(int handle) { return registry[handle].fileName; }
+    
+    /**
+     * Returns the {@link Texture} of a handle returned by {@link #resolveHandle(String)}. When the texture is loaded,
+     * this is a plain array access; otherwise it is loaded the same way {@link #getTexture(String)} does.
+     *
+     * @param handle
+     *         a handle returned by {@link #resolveHandle(String)}
+     * @return the {@link Texture} of the handle, loading it if necessary
+     */
+    public Texture getTexture(int handle) {
+        TextureEntry entry = registry[handle];
+        if (entry.isResident()) {
+            hits++;
+            entry.lastUsed = ++useClock;
+            return entry.texture;
+        }
+        return load(entry);
+    }
+    
+    /**
+     * Returns the {@link Texture} of a handle (see {@link #getTexture(int)}), setting its {@link TextureFilter} for
+     * both minification and magnification if it is not set already.
+     *
+     * @param handle
+     *         a handle returned by {@link #resolveHandle(String)}
+     * @param filter
+     *         the {@link TextureFilter} to use for both minification and magnification
+     * @return the {@link Texture} of the handle, loading it if necessary
+     */
+    public Texture getTexture(int handle, TextureFilter filter) {
+        return applyFilter(getTexture(handle), filter, filter);
+    }
+    
+    private TextureEntry entry(String fileName) {
+        TextureEntry entry = entries.get(fileName);
+        if (entry == null) {
+            if (registrySize == registry.length) registry = Arrays.copyOf(registry, registrySize * 2);
+            entry = new TextureEntry(fileName, registrySize);
+            registry[registrySize++] = entry;
+            entries.put(fileName, entry);
+        }
+        return entry;
+    }
+    
+    /**
+     * Sets the filters of a {@link Texture} only when they differ from its current ones, avoiding a needless GL
+     * state change.
+     */
+    private static Texture applyFilter(@NotNull Texture texture, TextureFilter minFilter, TextureFilter magFilter) {
+        if (texture.getMinFilter() != minFilter || texture.getMagFilter() != magFilter)
+            texture.setFilter(minFilter, magFilter);
+        return texture;
     }
     
     
@@ -126,7 +516,8 @@ public class AssetManagerHandler {
     
     /**
      * Returns the {@link Texture} associated with the given file name, loading it if necessary.
-     * Optionally sets the specified {@link TextureFilter} for minification and magnification.
+     * Optionally sets the specified {@link TextureFilter} for minification and magnification, if they are not set
+     * already.
      *
      * @param fileName
      *         the name of the {@link Texture} file
@@ -137,16 +528,234 @@ public class AssetManagerHandler {
      * @return the {@link Texture} associated with the specified file name, loading it if necessary
      */
     public Texture getTexture(String fileName, TextureFilter minFilter, TextureFilter magFilter) {
-        Texture texture = getTexture(fileName);
-        texture.setFilter(minFilter, magFilter);
+        return applyFilter(getTexture(fileName), minFilter, magFilter);
+    }
+    
+    /**
+     * Marks a {@link Texture} file as in use, so that it is never evicted (see {@link #setTextureBudget(long)})
+     * until every reference was {@link #releaseTexture(String) released}. Does not load the texture.
+     *
+     * @param fileName
+     *         the name of the {@link Texture} file
+     * @return an instance of this class to allow for method chaining
+     */
+    public AssetManagerHandler retainTexture(String fileName) {
+        entry(fileName).references++;
+        return this;
+    }
+    
+    /**
+     * Releases a reference taken by {@link #retainTexture(String)}. A texture left without references stays loaded,
+     * but may be evicted once the resident textures exceed the {@link #getTextureBudget() budget}.
+     *
+     * @param fileName
+     *         the name of the {@link Texture} file
+     * @return an instance of this class to allow for method chaining
+     */
+    public AssetManagerHandler releaseTexture(String fileName) {
+        TextureEntry entry = entries.get(fileName);
+        if (entry != null && entry.references > 0 && --entry.references == 0) trimToBudget();
+        return this;
+    }
+    
+    /**
+     * @param fileName
+     *         the name of a {@link Texture} file
+     * @return the number of {@link #retainTexture(String) references} to the texture
+     */
+    public int getReferenceCount(String fileName) {
+        TextureEntry entry = entries.get(fileName);
+        return entry == null ? 0 : entry.references;
+    }
+    
+    /**
+     * Sets the texture memory budget. Whenever the resident textures exceed it, textures without references are
+     * unloaded, least recently used first, and loaded again the next time they are requested.
+     * Textures packed into a shared atlas (see {@link #packAtlas}) are never evicted.
+     *
+     * @param textureBudget
+     *         the budget in bytes, {@link Long#MAX_VALUE} (the default) for no budget
+     * @return an instance of this class to allow for method chaining
+     */
+    public AssetManagerHandler setTextureBudget(long textureBudget) {
+        this.textureBudget = textureBudget;
+        trimToBudget();
+        return this;
+    }
+    
+    public long getTextureBudget() { return textureBudget; }
+    
+    /**
+     * Adds a listener called with the file name of every {@link Texture} evicted to respect the
+     * {@link #getTextureBudget() budget}, e.g. to drop anything cut from it.
+     *
+     * @param listener
+     *         the listener to add
+     * @return an instance of this class to allow for method chaining
+     */
+    public AssetManagerHandler addEvictionListener(@NotNull Consumer<String> listener) {
+        evictionListeners.add(listener);
+        return this;
+    }
+    
+    /**
+     * @return how many times {@link #getTexture(String)} found its texture already loaded
+     */
+    public long getHits() { return hits; }
+    
+    /**
+     * @return how many times {@link #getTexture(String)} did not find its texture loaded
+     */
+    public long getMisses() { return misses; }
+    
+    /**
+     * @return how many textures were evicted to respect the {@link #getTextureBudget() budget}
+     */
+    public long getEvictions() { return evictions; }
+    
+    /**
+     * @return the estimated GPU memory, in bytes, of every loaded {@link Texture} tracked by this class
+     */
+    public long getResidentBytes() { return residentBytes; }
+    
+    /**
+     * Resets the {@link #getHits() hit}, {@link #getMisses() miss} and {@link #getEvictions() eviction} counters.
+     */
+    public void resetStatistics() { hits = misses = evictions = 0; }
+    
+    private Texture track(String fileName, Texture texture) {
+        TextureEntry entry = entry(fileName);
+        entry.lastUsed = ++useClock;
+        if (entry.texture != texture) {
+            residentBytes -= entry.bytes;
+            entry.texture = texture;
+            entry.bytes = estimateBytes(texture);
+            residentBytes += entry.bytes;
+            trimToBudget();
+        }
         return texture;
     }
     
+    private void trimToBudget() {
+        while (residentBytes > textureBudget) {
+            TextureEntry victim = null;
+            for (int handle = 0; handle < registrySize; handle++) {
+                TextureEntry entry = registry[handle];
+                if (entry.isResident() && entry.references == 0
+                    && (victim == null || entry.lastUsed < victim.lastUsed)) victim = entry;
+            }
+            if (victim == null) return;
+            assetManager.unload(victim.fileName);
+            residentBytes -= victim.bytes;
+            victim.texture = null;
+            victim.bytes = 0;
+            evictions++;
+            for (Consumer<String> listener : evictionListeners) listener.accept(victim.fileName);
+        }
+    }
+    
+    static long estimateBytes(@NotNull Texture texture) {
+        Pixmap.Format format = texture.getTextureData().getFormat();
+        int bytesPerPixel = format == null ? 4 : switch (format) {
+            case Alpha, Intensity -> 1;
+            case LuminanceAlpha, RGB565, RGBA4444 -> 2;
+            case RGB888 -> 3;
+            case RGBA8888 -> 4;
+        };
+        long bytes = Math.max((long) texture.getWidth() * texture.getHeight() * bytesPerPixel, 1);
+        return texture.getTextureData().useMipMaps() ? bytes * 4 / 3 : bytes;
+    }
+    
     /**
-     * Disposes the AssetManager, releasing all resources and preventing memory leaks.
+     * Packs the given sprite sheets into one shared {@link TextureAtlas}, so that everything drawn from them binds a
+     * single {@link Texture} and the {@link com.badlogic.gdx.graphics.g2d.SpriteBatch SpriteBatch} does not have to
+     * flush between them. The sheets are decoded straight into the atlas pages and are not kept as separate textures.
+     * <p>Packing the same {@code atlasName} twice does nothing, and sheets that were already packed (into any atlas) or
+     * that are bigger than {@link #ATLAS_PAGE_SIZE} are skipped; {@link #getRegion(String)} falls back to their own
+     * {@link Texture} in that case. In {@link #setHeadless headless} mode nothing is packed.</p>
+     *
+     * @param atlasName
+     *         the name identifying the atlas, e.g. the class name of the group that uses it
+     * @param filter
+     *         the {@link TextureFilter} to use for both minification and magnification of the atlas pages
+     * @param fileNames
+     *         the names of the sprite sheet files to pack
+     * @return an instance of this class to allow for method chaining
+     */
+    public AssetManagerHandler packAtlas(String atlasName, TextureFilter filter, String @NotNull ... fileNames) {
+        if (headless || atlases.containsKey(atlasName)) return this;
+        PixmapPacker packer = new PixmapPacker(ATLAS_PAGE_SIZE, ATLAS_PAGE_SIZE, Pixmap.Format.RGBA8888,
+                ATLAS_PADDING, true);
+        for (String fileName : fileNames) {
+            if (packedRegions.containsKey(fileName) || packer.getRect(fileName) != null) continue;
+            Pixmap sheet = new Pixmap(assetManager.getFileHandleResolver().resolve(fileName));
+            try { packer.pack(fileName, sheet); } catch (GdxRuntimeException ignored) { } finally { sheet.dispose(); }
+        }
+        TextureAtlas atlas = packer.generateTextureAtlas(filter, filter, false);
+        packer.dispose();
+        for (TextureAtlas.AtlasRegion region : atlas.getRegions())
+            packedRegions.put(region.name, region);
+        atlases.put(atlasName, atlas);
+        return this;
+    }
+    
+    /**
+     * @param fileName
+     *         the name of a sprite sheet file
+     * @return {@code true} if the sprite sheet was packed into a shared atlas by {@link #packAtlas}
+     */
+    public boolean isPacked(String fileName) { return packedRegions.containsKey(fileName); }
+    
+    /**
+     * Returns the {@link TextureRegion} covering the whole sprite sheet with the given file name.
+     * If the sheet was packed by {@link #packAtlas}, the region lies inside the shared atlas page,
+     * otherwise it covers the sheet's own {@link Texture}, loading it if necessary.
+     *
+     * @param fileName
+     *         the name of the sprite sheet file
+     * @return the {@link TextureRegion} of the whole sprite sheet
+     */
+    public TextureRegion getRegion(String fileName) {
+        TextureRegion packed = packedRegions.get(fileName);
+        return packed != null ? new TextureRegion(packed) : new TextureRegion(getTexture(fileName));
+    }
+    
+    /**
+     * Returns the {@link TextureRegion} covering the whole sprite sheet with the given file name
+     * (see {@link #getRegion(String)}), setting the {@link TextureFilter} of its {@link Texture}.
+     *
+     * @param fileName
+     *         the name of the sprite sheet file
+     * @param filter
+     *         the {@link TextureFilter} to use for both minification and magnification
+     * @return the {@link TextureRegion} of the whole sprite sheet
+     */
+    public TextureRegion getRegion(String fileName, TextureFilter filter) {
+        TextureRegion region = getRegion(fileName);
+        applyFilter(region.getTexture(), filter, filter);
+        return region;
+    }
+    
+    /**
+     * Disposes the AssetManager, releasing all resources and preventing memory leaks, and drops the cached
+     * {@link AnimationSet}s, whose frames refer to the disposed textures.
      * This method should be called when the AssetManager is no longer needed.
      */
     public void dispose() {
+        loadQueue.clear();
+        if (pipeline != null) pipeline.dispose();
+        pipeline = null;
+        for (int handle = 0; handle < registrySize; handle++) {
+            registry[handle].texture = null;
+            registry[handle].bytes = 0;
+        }
+        residentBytes = 0;
+        if (placeholder != null) placeholder.dispose();
+        placeholder = null;
+        for (TextureAtlas atlas : atlases.values()) atlas.dispose();
+        atlases.clear();
+        packedRegions.clear();
+        AnimationSet.clearCache();
         assetManager.dispose();
     }
 }
@@ -0,0 +1,124 @@
+package com.core.handler;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>A {@link FileHandle} of a file held by an {@link AssetBundle}, returned by {@link BundleFileHandleResolver}. It
+ * reads the file from the mapped bundle: {@link #map()} returns the bytes of the file in place, and {@link #read()}
+ * and {@link #readBytes()} read them with no system call.</p>
+ * <p>Siblings, children and the parent of the file are resolved by the same resolver, so they are bundled files
+ * too when the bundle holds them.</p>
+ *
+ * @author Tamir Eliraz
+ */
+public class BundleFileHandle extends FileHandle {
+    private final AssetBundle bundle;
+    private final BundleFileHandleResolver resolver;
+    
+    BundleFileHandle(String fileName, AssetBundle bundle, BundleFileHandleResolver resolver) {
+        super(fileName, FileType.Internal);
+        this.bundle = bundle;
+        this.resolver = resolver;
+    }
+    
+    /**
+     * @return the bundle holding this file
+     */
+    public AssetBundle getBundle() { return bundle; }
+    
+    /**
+     * Decodes this file into a {@link Pixmap} straight from the mapped bundle, with no copy of the encoded image.
+     *
+     * @return the decoded image
+     */
+    public @NotNull Pixmap decodePixmap() {
+        ByteBuffer bytes = map();
+        return new Pixmap(bytes, 0, bytes.remaining());
+    }
+    
+    @Override
+    public InputStream read() {
+        ByteBuffer bytes = map();
+        return new InputStream() {
+            @Override
+            public int read() { return bytes.hasRemaining() ? bytes.get() & 0xFF : -1; }
+            
+            @Override
+            public int read(byte @NotNull [] b, int off, int len) {
+                if (len == 0) return 0;
+                if (!bytes.hasRemaining()) return -1;
+                len = Math.min(len, bytes.remaining());
+                bytes.get(b, off, len);
+                return len;
+            }
+            
+            @Override
+            public long skip(long n) {
+                int skipped = (int) Math.max(0, Math.min(n, bytes.remaining()));
+                bytes.position(bytes.position() + skipped);
+                return skipped;
+            }
+            
+            @Override
+            public int available() { return bytes.remaining(); }
+        };
+    }
+    
+    @Override
+    public byte[] readBytes() {
+        ByteBuffer bytes = map();
+        byte[] result = new byte[bytes.remaining()];
+        bytes.get(result);
+        return result;
+    }
+    
+    /**
+     * @return the bytes of this file, as a read-only view of the mapped bundle
+     * @throws GdxRuntimeException
+     *         if asked for a mode other than {@link FileChannel.MapMode#READ_ONLY}
+     */
+    @Override
+    public ByteBuffer map(FileChannel.MapMode mode) {
+        if (mode != FileChannel.MapMode.READ_ONLY) throw new GdxRuntimeException("Bundled files are read only: " + this);
+        ByteBuffer bytes = bundle.slice(path());
+        if (bytes == null) throw new GdxRuntimeException("File not found in asset bundle: " + this);
+        return bytes;
+    }
+    
+    @Override
+    public boolean exists() { return bundle.contains(path()); }
+    
+    @Override
+    public boolean isDirectory() { return false; }
+    
+    @Override
+    public long length() { return bundle.length(path()); }
+    
+    @Override
+    public long lastModified() { return bundle.getFile().lastModified(); }
+    
+    @Override
+    public FileHandle child(String name) { return resolver.resolve(path() + "/" + name); }
+    
+    @Override
+    public FileHandle sibling(String name) {
+        String path = path();
+        int slash = path.lastIndexOf('/');
+        return resolver.resolve(slash < 0 ? name : path.substring(0, slash + 1) + name);
+    }
+    
+    @Override
+    public FileHandle parent() {
+        String path = path();
+        int slash = path.lastIndexOf('/');
+        return resolver.resolve(slash < 0 ? "" : path.substring(0, slash));
+    }
+}
@@ -0,0 +1,60 @@
+package com.core.handler;
+
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link FileHandleResolver} that resolves the files held by its mounted {@link AssetBundle}s to
+ * {@link BundleFileHandle}s, the most recently mounted bundle first, and every other file by a fallback resolver.
+ * Set on an {@link com.badlogic.gdx.assets.AssetManager AssetManager}, it makes the bundles transparent to the loaders.
+ *
+ * @author Tamir Eliraz
+ * @see BundleTextureLoader
+ */
+public class BundleFileHandleResolver implements FileHandleResolver {
+    private final FileHandleResolver fallback;
+    /**
+     * The mounted bundles, in mount order; copied on write, since the texture decoding workers resolve files while the
+     * render thread mounts and unmounts bundles.
+     */
+    private final CopyOnWriteArrayList<AssetBundle> bundles;
+    
+    /**
+     * @param fallback
+     *         the resolver of the files no mounted bundle holds, typically an
+     *         {@link com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver InternalFileHandleResolver}
+     */
+    public BundleFileHandleResolver(@NotNull FileHandleResolver fallback) {
+        this.fallback = fallback;
+        bundles = new CopyOnWriteArrayList<>();
+    }
+    
+    /**
+     * Mounts a bundle, whose files then shadow the files of the same name in the bundles mounted before it and in the
+     * fallback resolver.
+     *
+     * @return an instance of this class to allow for method chaining
+     */
+    public BundleFileHandleResolver mount(@NotNull AssetBundle bundle) { bundles.add(bundle); return this; }
+    
+    /**
+     * @return {@code true} if the bundle was mounted
+     */
+    public boolean unmount(AssetBundle bundle) { return bundles.remove(bundle); }
+    
+    /**
+     * @return {@code true} if any bundle is mounted
+     */
+    public boolean hasBundles() { return !bundles.isEmpty(); }
+    
+    @Override
+    public FileHandle resolve(String fileName) {
+        AssetBundle match = null;
+        for (AssetBundle bundle : bundles) if (bundle.contains(fileName)) match = bundle;
+        if (match != null) return new BundleFileHandle(fileName, match, this);
+        return fallback.resolve(fileName);
+    }
+}
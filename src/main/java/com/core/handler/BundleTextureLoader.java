@@ -0,0 +1,69 @@
+package com.core.handler;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link TextureLoader} that decodes the images of an {@link AssetBundle} straight from the mapped bundle (see
+ * {@link BundleFileHandle#decodePixmap()}), where the {@link TextureLoader} copies every file into an array first.
+ * Every other file, and the compressed formats ({@code cim}, {@code etc1}, {@code ktx}), are loaded as usual. With a
+ * {@link PixelCache}, images loaded with the default format and no mipmaps are served by the cache instead.
+ *
+ * @author Tamir Eliraz
+ * @see BundleFileHandleResolver
+ */
+public class BundleTextureLoader extends TextureLoader {
+    private PixelCache pixelCache;
+    
+    public BundleTextureLoader(FileHandleResolver resolver) { super(resolver); }
+    
+    void setPixelCache(@Nullable PixelCache pixelCache) { this.pixelCache = pixelCache; }
+    
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, TextureParameter parameter) {
+        if (isCompressed(file.extension()) || parameter != null && parameter.textureData != null) {
+            super.loadAsync(manager, fileName, file, parameter);
+            return;
+        }
+        if (pixelCache != null && (parameter == null || parameter.format == null && !parameter.genMipMaps)) {
+            TextureParameter cached = copy(parameter);
+            cached.textureData = pixelCache.load(fileName, file);
+            parameter = cached;
+        } else if (file instanceof BundleFileHandle bundled) {
+            TextureParameter mapped = copy(parameter);
+            mapped.textureData = new FileTextureData(file, bundled.decodePixmap(), mapped.format, mapped.genMipMaps);
+            parameter = mapped;
+        }
+        super.loadAsync(manager, fileName, file, parameter);
+    }
+    
+    /**
+     * @return a copy of the parameter, or the default parameter if {@code null}, so that its texture data can be set
+     * without touching the caller's
+     */
+    private static @NotNull TextureParameter copy(@Nullable TextureParameter parameter) {
+        TextureParameter copy = new TextureParameter();
+        if (parameter == null) return copy;
+        copy.loadedCallback = parameter.loadedCallback;
+        copy.format = parameter.format;
+        copy.genMipMaps = parameter.genMipMaps;
+        copy.texture = parameter.texture;
+        copy.minFilter = parameter.minFilter;
+        copy.magFilter = parameter.magFilter;
+        copy.wrapU = parameter.wrapU;
+        copy.wrapV = parameter.wrapV;
+        return copy;
+    }
+    
+    private static boolean isCompressed(String extension) {
+        return switch (extension) {
+            case "cim", "etc1", "ktx", "zktx" -> true;
+            default -> false;
+        };
+    }
+}
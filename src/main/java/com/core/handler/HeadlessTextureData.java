@@ -0,0 +1,93 @@
+package com.core.handler;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * The {@link TextureData} of a {@link com.badlogic.gdx.graphics.Texture Texture} loaded in headless mode (see
+ * {@link AssetManagerHandler#setHeadless}): it knows only the dimensions of the image, read from the header of a PNG
+ * file without decoding it, and uploads nothing. Images in other formats are decoded once to read their size.
+ *
+ * @author Tamir Eliraz
+ */
+class HeadlessTextureData implements TextureData {
+    private static final long PNG_SIGNATURE = 0x89504E470D0A1A0AL;
+    private static final int IHDR = 0x49484452;
+    private final FileHandle file;
+    private int width, height;
+    private boolean prepared;
+    
+    HeadlessTextureData(FileHandle file) { this.file = file; }
+    
+    @Override
+    public TextureDataType getType() { return TextureDataType.Custom; }
+    
+    @Override
+    public boolean isPrepared() { return prepared; }
+    
+    @Override
+    public void prepare() {
+        if (prepared) return;
+        if (!readPngHeader()) {
+            Pixmap pixmap = new Pixmap(file);
+            width = pixmap.getWidth();
+            height = pixmap.getHeight();
+            pixmap.dispose();
+        }
+        prepared = true;
+    }
+    
+    /**
+     * Reads the dimensions from the IHDR chunk, which always follows the signature of a PNG file.
+     *
+     * @return {@code false} if the file is not a PNG file
+     */
+    private boolean readPngHeader() {
+        DataInputStream in = new DataInputStream(file.read());
+        try {
+            if (in.readLong() != PNG_SIGNATURE) return false;
+            in.readInt();
+            if (in.readInt() != IHDR) return false;
+            width = in.readInt();
+            height = in.readInt();
+            return true;
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't read the header of " + file, e);
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+    }
+    
+    @Override
+    public Pixmap consumePixmap() {
+        throw new GdxRuntimeException("A headless texture has no pixels: " + file);
+    }
+    
+    @Override
+    public boolean disposePixmap() { return false; }
+    
+    @Override
+    public void consumeCustomData(int target) { }
+    
+    @Override
+    public int getWidth() { return width; }
+    
+    @Override
+    public int getHeight() { return height; }
+    
+    @Override
+    public @NotNull Pixmap.Format getFormat() { return Pixmap.Format.RGBA8888; }
+    
+    @Override
+    public boolean useMipMaps() { return false; }
+    
+    @Override
+    public boolean isManaged() { return false; }
+}
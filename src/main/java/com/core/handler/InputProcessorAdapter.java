@@ -3,12 +3,10 @@ package com.core.handler;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputProcessor;
 
-import java.util.BitSet;
-
 /**
  * This interface extends the original interface (see {@link InputProcessor}),
  * making it easier to use without additional code, as it provides a default {@code false} return value for all methods.
- * Additionally, it maintains a static {@link BitSet} that tracks all currently pressed buttons;
+ * Additionally, it reads the per-frame {@link InputState.Snapshot snapshot} of the keyboard kept by {@link InputState};
  * therefore, it supports checking whether a specific button is pressed at a given time,
  * as well as determining if any button is pressed at the moment.
  *
@@ -16,36 +14,57 @@ import java.util.BitSet;
  * @see com.badlogic.gdx.InputProcessor
  */
 public interface InputProcessorAdapter extends InputProcessor {
-    public static final BitSet keys = new BitSet(256);
-    
     /**
-     * {@inheritDoc} – and signing {@link Input.Keys keys} as pressed at {@link #keys}
+     * {@inheritDoc}
      *
      * @param keycode
      *         {@inheritDoc}
      * @return {@inheritDoc} – and {@code false} by default
      */
     @Override
-    public default boolean keyDown(int keycode) { keys.set(keycode); return false; }
+    public default boolean keyDown(int keycode) { return false; }
     
     /**
-     * {@inheritDoc} – and un-signing {@link Input.Keys keys} as pressed at {@link #keys}
+     * {@inheritDoc}
      *
      * @param keycode
      *         {@inheritDoc}
      * @return {@inheritDoc}  – and {@code false} by default
      */
     @Override
-    public default boolean keyUp(int keycode) { keys.clear(keycode); return false; }
+    public default boolean keyUp(int keycode) { return false; }
     
     /**
-     * Checks if a specific {@link Input.Keys keys} pressed. In other words, check if {@link #keys} signed the {@link Input.Keys keys}.
+     * Checks if a specific {@link Input.Keys keys} pressed during the current frame
+     * (see {@link InputState.Snapshot#isPressed(int)}).
      *
      * @param keycode
      *         one of the constants in {@link Input.Keys}
      * @return {@code true} if key pressed, else {@code false}
      */
-    public default boolean isKeyPressed(int keycode) { return keys.get(keycode); }
+    public default boolean isKeyPressed(int keycode) { return InputState.getInstance().getSnapshot().isPressed(keycode); }
+    
+    /**
+     * Checks if a specific {@link Input.Keys keys} went down since the previous frame.
+     *
+     * @param keycode
+     *         one of the constants in {@link Input.Keys}
+     * @return {@code true} if key just pressed, else {@code false}
+     */
+    public default boolean isKeyJustPressed(int keycode) {
+        return InputState.getInstance().getSnapshot().isJustPressed(keycode);
+    }
+    
+    /**
+     * Checks if a specific {@link Input.Keys keys} went up since the previous frame.
+     *
+     * @param keycode
+     *         one of the constants in {@link Input.Keys}
+     * @return {@code true} if key just released, else {@code false}
+     */
+    public default boolean isKeyJustReleased(int keycode) {
+        return InputState.getInstance().getSnapshot().isJustReleased(keycode);
+    }
     
     /**
      * Checks if any {@link Input.Keys keys} pressed
@@ -57,7 +76,7 @@ public interface InputProcessorAdapter extends InputProcessor {
     /**
      * @return how many {@link Input.Keys keys} currently pressed
      */
-    default int getNumberOfKeysPressed() { return keys.size(); }
+    default int getNumberOfKeysPressed() { return InputState.getInstance().getSnapshot().getPressedCount(); }
     
     /**
      * {@inheritDoc}
@@ -0,0 +1,171 @@
+package com.core.handler;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.core.base.enums.Direction;
+import com.core.jfr.InputDispatchEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>This is a singleton class that routes key events to the {@link InputProcessor}s subscribed to each
+ * {@link Input.Keys key}, instead of offering every event to every processor the way an {@link InputMultiplexer} does.
+ * Dispatching a key costs only as much as the number of its subscribers, however many actors listen to other keys.</p>
+ * <p>The events reach this class by {@link #attach(InputMultiplexer) attaching} it to an {@link InputMultiplexer}.
+ * Subscribers receive {@link InputProcessor#keyDown(int)} and {@link InputProcessor#keyUp(int)} for their keys only;
+ * every subscriber of a key receives it, even if an earlier one handled it.</p>
+ *
+ * @author Tamir Eliraz
+ * @see InputProcessorAdapter
+ */
+public class InputRouter implements InputProcessorAdapter {
+    private static final int KEYS = Input.Keys.MAX_KEYCODE + 1;
+    private static InputRouter instance;
+    /**
+     * The subscribers of every {@link Input.Keys key code}, or {@code null} for keys nobody ever subscribed to.
+     */
+    private final SnapshotArray<InputProcessor>[] subscribers;
+    
+    @SuppressWarnings("unchecked")
+    private InputRouter() { subscribers = (SnapshotArray<InputProcessor>[]) new SnapshotArray<?>[KEYS]; }
+    
+    /**
+     * @return the single instance of {@link InputRouter}
+     */
+    public static InputRouter getInstance() {
+        if (instance == null) instance = new InputRouter();
+        return instance;
+    }
+    
+    /**
+     * Adds this class as a processor of the given {@link InputMultiplexer}, right after {@link InputState}, unless it
+     * was already added.
+     *
+     * @param inputMultiplexer
+     *         the {@link InputMultiplexer} receiving the key events
+     * @return an instance of this class to allow for method chaining
+     */
+    public InputRouter attach(@NotNull InputMultiplexer inputMultiplexer) {
+        InputState.getInstance().attach(inputMultiplexer);
+        if (!inputMultiplexer.getProcessors().contains(this, true)) inputMultiplexer.addProcessor(1, this);
+        return this;
+    }
+    
+    /**
+     * Subscribes a processor to a single {@link Input.Keys key}. Subscribing twice to the same key does nothing.
+     *
+     * @param keycode
+     *         one of the constants in {@link Input.Keys}
+     * @param processor
+     *         the processor receiving the key's events
+     * @return an instance of this class to allow for method chaining
+     */
+    public InputRouter subscribe(int keycode, @NotNull InputProcessor processor) {
+        if (keycode < 0 || keycode >= KEYS) return this;
+        SnapshotArray<InputProcessor> array = subscribers[keycode];
+        if (array == null) array = subscribers[keycode] = new SnapshotArray<>(true, 4, InputProcessor.class);
+        if (!array.contains(processor, true)) array.add(processor);
+        return this;
+    }
+    
+    /**
+     * Subscribes a processor to every {@link Direction#getKeys() key} of the given {@link Direction}s.
+     *
+     * @param processor
+     *         the processor receiving the keys' events
+     * @param directions
+     *         the {@link Direction}s to subscribe to
+     * @return an instance of this class to allow for method chaining
+     */
+    public InputRouter subscribe(@NotNull InputProcessor processor, Direction @NotNull ... directions) {
+        for (Direction direction : directions)
+            for (int i = 0; i < direction.getKeyCount(); i++) subscribe(direction.getKey(i), processor);
+        return this;
+    }
+    
+    /**
+     * Unsubscribes a processor from a single {@link Input.Keys key}.
+     *
+     * @param keycode
+     *         one of the constants in {@link Input.Keys}
+     * @param processor
+     *         the subscribed processor
+     * @return an instance of this class to allow for method chaining
+     */
+    public InputRouter unsubscribe(int keycode, @NotNull InputProcessor processor) {
+        if (keycode >= 0 && keycode < KEYS && subscribers[keycode] != null)
+            subscribers[keycode].removeValue(processor, true);
+        return this;
+    }
+    
+    /**
+     * Unsubscribes a processor from every {@link Direction#getKeys() key} of the given {@link Direction}s.
+     *
+     * @param processor
+     *         the subscribed processor
+     * @param directions
+     *         the {@link Direction}s to unsubscribe from
+     * @return an instance of this class to allow for method chaining
+     */
+    public InputRouter unsubscribe(@NotNull InputProcessor processor, Direction @NotNull ... directions) {
+        for (Direction direction : directions)
+            for (int i = 0; i < direction.getKeyCount(); i++) unsubscribe(direction.getKey(i), processor);
+        return this;
+    }
+    
+    /**
+     * Unsubscribes a processor from every key it is subscribed to.
+     *
+     * @param processor
+     *         the subscribed processor
+     * @return an instance of this class to allow for method chaining
+     */
+    public InputRouter unsubscribe(@NotNull InputProcessor processor) {
+        for (int keycode = 0; keycode < KEYS; keycode++) unsubscribe(keycode, processor);
+        return this;
+    }
+    
+    /**
+     * @param keycode
+     *         one of the constants in {@link Input.Keys}
+     * @return how many processors are subscribed to the key
+     */
+    public int getSubscriberCount(int keycode) {
+        return keycode < 0 || keycode >= KEYS || subscribers[keycode] == null ? 0 : subscribers[keycode].size;
+    }
+    
+    /**
+     * Dispatches the key press to the key's subscribers.
+     *
+     * @return {@code true} if any subscriber handled the event
+     */
+    @Override
+    public boolean keyDown(int keycode) { return dispatch(keycode, true); }
+    
+    /**
+     * Dispatches the key release to the key's subscribers.
+     *
+     * @return {@code true} if any subscriber handled the event
+     */
+    @Override
+    public boolean keyUp(int keycode) { return dispatch(keycode, false); }
+    
+    private boolean dispatch(int keycode, boolean down) {
+        if (keycode < 0 || keycode >= KEYS || subscribers[keycode] == null) return false;
+        SnapshotArray<InputProcessor> array = subscribers[keycode];
+        InputDispatchEvent event = InputDispatchEvent.start(keycode, down, array.size,
+                Gdx.input == null ? 0 : Gdx.input.getCurrentEventTime());
+        boolean handled = false;
+        InputProcessor[] items = array.begin();
+        try {
+            for (int i = 0, n = array.size; i < n; i++)
+                handled |= down ? items[i].keyDown(keycode) : items[i].keyUp(keycode);
+        } finally {
+            array.end();
+            if (event != null) event.finish(handled);
+        }
+        return handled;
+    }
+}
@@ -0,0 +1,225 @@
+package com.core.handler;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputMultiplexer;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>This is a singleton class that records the state of the keyboard once per frame. Key events are collected, from
+ * any thread, into a lock-free ring buffer, and {@link #publish()} turns them into an immutable {@link Snapshot} of the
+ * pressed, just-pressed and just-released {@link Input.Keys keys}. Every reader of the same frame sees the same
+ * snapshot, so any number of actors can query the keyboard without writing anything.</p>
+ * <p>The events reach this class by {@link #attach(InputMultiplexer) attaching} it to an {@link InputMultiplexer};
+ * {@link com.core.base.game.BaseScreen BaseScreen} publishes a new snapshot at the start of every frame.</p>
+ *
+ * @author Tamir Eliraz
+ * @see InputProcessorAdapter
+ */
+public class InputState implements InputProcessorAdapter {
+    /**
+     * The maximum number of key events kept between two {@link #publish() publications}; further events are dropped.
+     */
+    public static final int CAPACITY = 1024;
+    private static final int KEYS = Input.Keys.MAX_KEYCODE + 1;
+    private static final int WORDS = (KEYS + Long.SIZE - 1) / Long.SIZE;
+    private static final int MASK = CAPACITY - 1;
+    private static InputState instance;
+    /**
+     * The ring buffer of events, each one a keycode shifted left by one bit, with the low bit set for a key press.
+     */
+    private final int[] events;
+    /**
+     * The sequence number of each slot of {@link #events}, used to hand a slot from its producer to the consumer
+     * without locking.
+     */
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail;
+    private final AtomicLong dropped;
+    private long head;
+    private volatile Snapshot front;
+    private Snapshot back;
+    
+    /**
+     * The state of the keyboard during one frame. A snapshot never changes while it is the
+     * {@link #getSnapshot() current} one; it is reused two publications later.
+     */
+    public static final class Snapshot {
+        private final long[] pressed = new long[WORDS];
+        private final long[] justPressed = new long[WORDS];
+        private final long[] justReleased = new long[WORDS];
+        private int pressedCount;
+        private boolean changed;
+        private long frame;
+        
+        private Snapshot() { }
+        
+        private static boolean get(long[] bits, int keycode) {
+            return keycode >= 0 && keycode < KEYS && (bits[keycode >>> 6] & 1L << keycode) != 0;
+        }
+        
+        /**
+         * @param keycode
+         *         one of the constants in {@link Input.Keys}
+         * @return {@code true} if the key is held down during this frame
+         */
+        public boolean isPressed(int keycode) { return get(pressed, keycode); }
+        
+        /**
+         * @param keycode
+         *         one of the constants in {@link Input.Keys}
+         * @return {@code true} if the key went down since the previous frame
+         */
+        public boolean isJustPressed(int keycode) { return get(justPressed, keycode); }
+        
+        /**
+         * @param keycode
+         *         one of the constants in {@link Input.Keys}
+         * @return {@code true} if the key went up since the previous frame
+         */
+        public boolean isJustReleased(int keycode) { return get(justReleased, keycode); }
+        
+        /**
+         * @return how many keys are held down during this frame
+         */
+        public int getPressedCount() { return pressedCount; }
+        
+        /**
+         * @return {@code true} if any key went down or up since the previous frame
+         */
+        public boolean isChanged() { return changed; }
+        
+        /**
+         * @return the number of the {@link #publish() publication} that produced this snapshot
+         */
+        public long getFrame() { return frame; }
+    }
+    
+    private InputState() {
+        events = new int[CAPACITY];
+        sequences = new AtomicLongArray(CAPACITY);
+        for (int slot = 0; slot < CAPACITY; slot++) sequences.set(slot, slot);
+        tail = new AtomicLong();
+        dropped = new AtomicLong();
+        front = new Snapshot();
+        back = new Snapshot();
+    }
+    
+    /**
+     * @return the single instance of {@link InputState}
+     */
+    public static InputState getInstance() {
+        if (instance == null) instance = new InputState();
+        return instance;
+    }
+    
+    /**
+     * Adds this class as the first processor of the given {@link InputMultiplexer}, unless it was already added.
+     *
+     * @param inputMultiplexer
+     *         the {@link InputMultiplexer} receiving the key events
+     * @return an instance of this class to allow for method chaining
+     */
+    public InputState attach(@NotNull InputMultiplexer inputMultiplexer) {
+        if (!inputMultiplexer.getProcessors().contains(this, true)) inputMultiplexer.addProcessor(0, this);
+        return this;
+    }
+    
+    /**
+     * @return the {@link Snapshot} of the current frame
+     */
+    @Contract(pure = true)
+    public @NotNull Snapshot getSnapshot() { return front; }
+    
+    /**
+     * @return how many key events were dropped because more than {@link #CAPACITY} arrived within one frame
+     */
+    public long getDroppedEvents() { return dropped.get(); }
+    
+    /**
+     * Applies every key event recorded since the previous call and makes the result the current {@link Snapshot}.
+     * Must be called once per frame, from a single thread.
+     *
+     * @return the new current {@link Snapshot}
+     */
+    public Snapshot publish() {
+        Snapshot previous = front, next = back;
+        System.arraycopy(previous.pressed, 0, next.pressed, 0, WORDS);
+        Arrays.fill(next.justPressed, 0);
+        Arrays.fill(next.justReleased, 0);
+        while (sequences.get((int) head & MASK) == head + 1) {
+            int slot = (int) head & MASK;
+            int event = events[slot];
+            sequences.set(slot, head + CAPACITY);
+            head++;
+            apply(next, event >>> 1, (event & 1) != 0);
+        }
+        int count = 0;
+        long changes = 0;
+        for (int word = 0; word < WORDS; word++) {
+            count += Long.bitCount(next.pressed[word]);
+            changes |= next.justPressed[word] | next.justReleased[word];
+        }
+        next.pressedCount = count;
+        next.changed = changes != 0;
+        next.frame = previous.frame + 1;
+        back = previous;
+        front = next;
+        return next;
+    }
+    
+    private static void apply(@NotNull Snapshot snapshot, int keycode, boolean down) {
+        int word = keycode >>> 6;
+        long bit = 1L << keycode;
+        boolean pressed = (snapshot.pressed[word] & bit) != 0;
+        if (down && !pressed) {
+            snapshot.pressed[word] |= bit;
+            snapshot.justPressed[word] |= bit;
+        } else if (!down && pressed) {
+            snapshot.pressed[word] &= ~bit;
+            snapshot.justReleased[word] |= bit;
+        }
+    }
+    
+    private void record(int keycode, boolean down) {
+        if (keycode < 0 || keycode >= KEYS) return;
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & MASK;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events[slot] = keycode << 1 | (down ? 1 : 0);
+                    sequences.set(slot, position + 1);
+                    return;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                dropped.incrementAndGet();
+                return;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+    
+    /**
+     * Records the key press, to be applied by the next {@link #publish()}.
+     *
+     * @return {@code false}, so that the event reaches the other processors
+     */
+    @Override
+    public boolean keyDown(int keycode) { record(keycode, true); return false; }
+    
+    /**
+     * Records the key release, to be applied by the next {@link #publish()}.
+     *
+     * @return {@code false}, so that the event reaches the other processors
+     */
+    @Override
+    public boolean keyUp(int keycode) { record(keycode, false); return false; }
+}
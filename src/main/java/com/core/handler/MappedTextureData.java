@@ -0,0 +1,85 @@
+package com.core.handler;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The {@link TextureData} of an image served by the {@link PixelCache}: the raw pixels of the image, memory-mapped
+ * from its cache entry and uploaded to the GPU as they are, with no decoding. The mapping is released once uploaded,
+ * and mapped again if the GL context is lost and the texture is reloaded.
+ *
+ * @author Tamir Eliraz
+ */
+class MappedTextureData implements TextureData {
+    private final File entry;
+    private final int width, height;
+    private final Pixmap.Format format;
+    private ByteBuffer pixels;
+    
+    MappedTextureData(File entry, ByteBuffer pixels, int width, int height, Pixmap.Format format) {
+        this.entry = entry;
+        this.pixels = pixels;
+        this.width = width;
+        this.height = height;
+        this.format = format;
+    }
+    
+    @Override
+    public TextureDataType getType() { return TextureDataType.Custom; }
+    
+    @Override
+    public boolean isPrepared() { return pixels != null; }
+    
+    @Override
+    public void prepare() {
+        if (pixels != null) return;
+        try (FileChannel channel = FileChannel.open(entry.toPath(), StandardOpenOption.READ)) {
+            pixels = channel.map(FileChannel.MapMode.READ_ONLY, PixelCache.HEADER_LENGTH,
+                    channel.size() - PixelCache.HEADER_LENGTH);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't map cached pixels: " + entry, e);
+        }
+    }
+    
+    @Override
+    public Pixmap consumePixmap() {
+        throw new GdxRuntimeException("Cached pixels are uploaded as custom data: " + entry);
+    }
+    
+    @Override
+    public boolean disposePixmap() { return false; }
+    
+    @Override
+    public void consumeCustomData(int target) {
+        if (pixels == null) throw new GdxRuntimeException("Call prepare() before uploading cached pixels: " + entry);
+        Gdx.gl.glPixelStorei(GL20.GL_UNPACK_ALIGNMENT, 1);
+        int glFormat = Pixmap.Format.toGlFormat(format);
+        Gdx.gl.glTexImage2D(target, 0, glFormat, width, height, 0, glFormat, Pixmap.Format.toGlType(format), pixels);
+        pixels = null;
+    }
+    
+    @Override
+    public int getWidth() { return width; }
+    
+    @Override
+    public int getHeight() { return height; }
+    
+    @Override
+    public @NotNull Pixmap.Format getFormat() { return format; }
+    
+    @Override
+    public boolean useMipMaps() { return false; }
+    
+    @Override
+    public boolean isManaged() { return true; }
+}
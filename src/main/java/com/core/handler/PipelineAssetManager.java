@@ -0,0 +1,35 @@
+package com.core.handler;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Texture;
+
+/**
+ * An {@link AssetManager} that also accepts assets loaded outside of it, used by {@link TextureLoadPipeline} to hand
+ * over the textures it uploaded. Its files are resolved by a {@link BundleFileHandleResolver}, so that the files of the
+ * mounted {@link AssetBundle}s are loaded from the bundles, and its textures are served by its {@link PixelCache}, if
+ * any.
+ *
+ * @author Tamir Eliraz
+ */
+class PipelineAssetManager extends AssetManager {
+    private final BundleTextureLoader textureLoader;
+    private PixelCache pixelCache;
+    
+    PipelineAssetManager(BundleFileHandleResolver resolver) {
+        super(resolver);
+        textureLoader = new BundleTextureLoader(resolver);
+        setLoader(Texture.class, textureLoader);
+    }
+    
+    PixelCache getPixelCache() { return pixelCache; }
+    
+    void setPixelCache(PixelCache pixelCache) {
+        this.pixelCache = pixelCache;
+        textureLoader.setPixelCache(pixelCache);
+    }
+    
+    @Override
+    public synchronized <T> void addAsset(String fileName, Class<T> type, T asset) {
+        super.addAsset(fileName, type, asset);
+    }
+}
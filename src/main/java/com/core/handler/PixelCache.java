@@ -0,0 +1,311 @@
+package com.core.handler;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>An on-disk cache of decoded images, so that a {@link com.badlogic.gdx.graphics.Texture Texture} loaded on an
+ * earlier launch is uploaded straight from its memory-mapped pixels, with no PNG decoding. Set on
+ * {@link AssetManagerHandler} (see {@link AssetManagerHandler#setPixelCache}), it serves every texture load: the
+ * {@link com.badlogic.gdx.assets.AssetManager AssetManager} loads as well as the parallel decoding pipeline.</p>
+ * <p>Each image is cached in its own file, named by a hash of its file name, holding the modification time and length
+ * of the source file, the time its decoding took, its size and format, and its raw pixels. Source files with no
+ * modification time, such as classpath resources and files inside jars, are identified by a SHA-256 hash of their
+ * contents instead, also held by the entry. An entry whose source file changed since is decoded again and replaced;
+ * its header is checked with a plain read, so that only current entries are ever mapped. When the cache grows beyond
+ * its size cap, the least recently used entries are deleted.</p>
+ * <p>The cache reports, for every file it served, the load time it saved: the decoding time recorded when the entry
+ * was written, minus the time it took to map the entry.</p>
+ *
+ * @author Tamir Eliraz
+ */
+public class PixelCache {
+    /**
+     * The default size cap of a cache, in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+    private static final String FILE_EXTENSION = ".pixels";
+    private static final int MAGIC = 0x42475058;
+    private static final int VERSION = 2;
+    private static final int HASH_LENGTH = 32;
+    /**
+     * The offset, in the header of an entry, of the hash of the source file's contents.
+     */
+    private static final int HASH_OFFSET = 48;
+    /**
+     * The length of the header of an entry, which the pixels follow.
+     */
+    static final int HEADER_LENGTH = HASH_OFFSET + HASH_LENGTH;
+    private final File directory;
+    private final long maxBytes;
+    private long sizeBytes;
+    private final AtomicLong hits, misses;
+    private final Map<String, Long> timeSaved;
+    
+    /**
+     * Opens a cache, creating its directory if needed, and trims it to its cap.
+     *
+     * @param directory
+     *         the directory of the cache, which must be on the file system, e.g. {@code Gdx.files.local(".cache")}
+     * @param maxBytes
+     *         the size cap of the cache, in bytes
+     */
+    public PixelCache(@NotNull FileHandle directory, long maxBytes) {
+        this.directory = directory.file();
+        this.maxBytes = maxBytes;
+        if (!this.directory.isDirectory() && !this.directory.mkdirs())
+            throw new GdxRuntimeException("Couldn't create pixel cache directory: " + directory);
+        for (File entry : entries()) sizeBytes += entry.length();
+        trim();
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+        timeSaved = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Returns the {@link TextureData} of an image: from the cache if it holds an entry of the current version of the
+     * file, or else decoded from the file and written to the cache.
+     *
+     * @param fileName
+     *         the name the image is loaded by
+     * @param file
+     *         the image file
+     * @return the data, prepared, to construct a {@link com.badlogic.gdx.graphics.Texture Texture} from
+     */
+    @NotNull TextureData load(String fileName, @NotNull FileHandle file) {
+        long start = System.nanoTime();
+        byte[] sourceHash = new byte[HASH_LENGTH];
+        boolean identified = file.lastModified() != 0 || hash(file, sourceHash);
+        TextureData cached = identified ? get(fileName, file, sourceHash, start) : null;
+        if (cached != null) return cached;
+        if (!identified) misses.incrementAndGet();
+        start = System.nanoTime();
+        Pixmap pixmap = file instanceof BundleFileHandle bundled ? bundled.decodePixmap() : new Pixmap(file);
+        if (identified) put(fileName, file, sourceHash, pixmap, System.nanoTime() - start);
+        return new FileTextureData(file, pixmap, null, false);
+    }
+    
+    /**
+     * Checks the header of the entry of a file with a plain read, and maps its pixels only if it is an entry of the
+     * current version of the file, so that a stale entry is never mapped and can be replaced.
+     *
+     * @return the cached image, mapped, or {@code null} if the cache holds no entry of the current version of the file
+     */
+    private @Nullable TextureData get(String fileName, @NotNull FileHandle file, byte @NotNull [] sourceHash,
+                                      long start) {
+        File entry = entryFile(fileName);
+        if (!entry.isFile()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.BIG_ENDIAN);
+        int width, height;
+        Pixmap.Format format;
+        MappedByteBuffer pixels;
+        try (FileChannel channel = FileChannel.open(entry.toPath(), StandardOpenOption.READ)) {
+            while (header.hasRemaining()) if (channel.read(header) < 0) break;
+            if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                    || header.getLong(8) != file.lastModified() || header.getLong(16) != file.length()
+                    || !header.slice(HASH_OFFSET, HASH_LENGTH).equals(ByteBuffer.wrap(sourceHash))
+                    || (width = header.getInt(32)) <= 0 || (height = header.getInt(36)) <= 0
+                    || (format = format(header.getInt(40))) == null
+                    || channel.size() - HEADER_LENGTH != pixelBytes(format, width, height)) {
+                misses.incrementAndGet();
+                return null;
+            }
+            pixels = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH, channel.size() - HEADER_LENGTH);
+        } catch (IOException e) {
+            misses.incrementAndGet();
+            return null;
+        }
+        entry.setLastModified(System.currentTimeMillis());
+        hits.incrementAndGet();
+        timeSaved.put(fileName, Math.max(0, header.getLong(24) - (System.nanoTime() - start)));
+        return new MappedTextureData(entry, pixels, width, height, format);
+    }
+    
+    /**
+     * Writes a decoded image to the cache, then deletes the least recently used entries if the cache is over its cap.
+     * A failure to write only leaves the image uncached.
+     */
+    private void put(String fileName, @NotNull FileHandle file, byte @NotNull [] sourceHash, @NotNull Pixmap pixmap,
+                     long decodeNanos) {
+        ByteBuffer pixels = pixmap.getPixels();
+        int length = pixelBytes(pixmap.getFormat(), pixmap.getWidth(), pixmap.getHeight());
+        if (HEADER_LENGTH + length > maxBytes) return;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(file.lastModified()).putLong(file.length()).putLong(decodeNanos)
+                .putInt(pixmap.getWidth()).putInt(pixmap.getHeight())
+                .putInt(Pixmap.Format.toGdx2DPixmapFormat(pixmap.getFormat())).put(HASH_OFFSET, sourceHash).rewind();
+        File entry = entryFile(fileName);
+        Path temp = entry.toPath().resolveSibling(entry.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer data = pixels.duplicate().position(0).limit(length);
+                while (header.hasRemaining()) channel.write(header);
+                while (data.hasRemaining()) channel.write(data);
+            }
+            synchronized (this) {
+                long previous = entry.length();
+                Files.move(temp, entry.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                sizeBytes += HEADER_LENGTH + length - previous;
+                trim();
+            }
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) { }
+        }
+    }
+    
+    /**
+     * Deletes the least recently used entries until the cache is within its cap. An entry that cannot be deleted, e.g.
+     * because a texture still maps it on Windows, is deleted when the JVM exits, and the next entries are deleted
+     * instead; it is tried again on the next trim.
+     */
+    private void trim() {
+        if (sizeBytes <= maxBytes) return;
+        File[] entries = entries();
+        Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < entries.length && sizeBytes > maxBytes; i++) sizeBytes -= delete(entries[i]);
+    }
+    
+    /**
+     * Deletes an entry, or schedules it for deletion when the JVM exits if it cannot be deleted now.
+     *
+     * @return the length of the entry if it was deleted, or else {@code 0}
+     */
+    private static long delete(@NotNull File entry) {
+        long length = entry.length();
+        if (entry.delete()) return length;
+        entry.deleteOnExit();
+        return 0;
+    }
+    
+    /**
+     * Hashes the contents of a file with SHA-256, to identify the version of a file with no modification time.
+     *
+     * @param hash
+     *         the array receiving the hash
+     * @return {@code false} if the file could not be read
+     */
+    private static boolean hash(@NotNull FileHandle file, byte @NotNull [] hash) {
+        try (InputStream in = file.read()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            for (int read; (read = in.read(buffer)) >= 0; ) digest.update(buffer, 0, read);
+            digest.digest(hash, 0, HASH_LENGTH);
+            return true;
+        } catch (IOException | GdxRuntimeException | DigestException e) {
+            return false;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private File @NotNull [] entries() {
+        File[] entries = directory.listFiles((dir, name) -> name.endsWith(FILE_EXTENSION));
+        return entries == null ? new File[0] : entries;
+    }
+    
+    private @NotNull File entryFile(@NotNull String fileName) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(fileName.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(40);
+            for (int i = 0; i < 16; i++)
+                name.append(Character.forDigit(hash[i] >> 4 & 0xF, 16)).append(Character.forDigit(hash[i] & 0xF, 16));
+            return new File(directory, name.append(FILE_EXTENSION).toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static @Nullable Pixmap.Format format(int gdx2DFormat) {
+        for (Pixmap.Format format : Pixmap.Format.values())
+            if (Pixmap.Format.toGdx2DPixmapFormat(format) == gdx2DFormat) return format;
+        return null;
+    }
+    
+    private static int pixelBytes(Pixmap.Format format, int width, int height) {
+        return width * height * switch (format) {
+            case Alpha, Intensity -> 1;
+            case LuminanceAlpha, RGB565, RGBA4444 -> 2;
+            case RGB888 -> 3;
+            case RGBA8888 -> 4;
+        };
+    }
+    
+    /**
+     * @return the number of loads served from the cache
+     */
+    public long getHits() { return hits.get(); }
+    
+    /**
+     * @return the number of loads the cache could not serve, because it held no entry of the current version of the
+     * file
+     */
+    public long getMisses() { return misses.get(); }
+    
+    /**
+     * @return the size of the cache on disk, in bytes
+     */
+    public synchronized long getSizeBytes() { return sizeBytes; }
+    
+    public long getMaxBytes() { return maxBytes; }
+    
+    /**
+     * @param fileName
+     *         the name of a {@link com.badlogic.gdx.graphics.Texture Texture} file
+     * @return the load time, in nanoseconds, the cache saved the last time it served the file, or {@code 0} if it
+     * never did
+     */
+    public long getTimeSaved(String fileName) { return timeSaved.getOrDefault(fileName, 0L); }
+    
+    /**
+     * @return the load time, in nanoseconds, the cache saved the last time it served each file, by file name
+     */
+    public @NotNull Map<String, Long> getTimeSaved() { return Map.copyOf(timeSaved); }
+    
+    /**
+     * @return the load time, in nanoseconds, the cache saved over every file it served
+     */
+    public long getTotalTimeSaved() {
+        long total = 0;
+        for (long saved : timeSaved.values()) total += saved;
+        return total;
+    }
+    
+    /**
+     * Deletes every entry of the cache; entries that cannot be deleted now are deleted when the JVM exits.
+     */
+    public synchronized void clear() {
+        for (File entry : entries()) sizeBytes -= delete(entry);
+    }
+}
@@ -0,0 +1,188 @@
+package com.core.handler;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.core.jfr.AssetLoadEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A two-stage {@link Texture} loading pipeline. Sprite sheets are decoded into {@link Pixmap}s in parallel on a
+ * pool of worker threads (highest priority first), then uploaded to the GPU on the render thread by
+ * {@link #update(int) update}, which spends at most a given time per frame. Uploaded textures are added to the
+ * {@link AssetManager}, so they are looked up and unloaded exactly like textures it loaded itself.</p>
+ * <p>Used by {@link AssetManagerHandler} (see {@link AssetManagerHandler#setDecodeThreads(int)}); all methods but the
+ * decoding itself run on the render thread.</p>
+ *
+ * @author Tamir Eliraz
+ */
+class TextureLoadPipeline {
+    private final PipelineAssetManager assetManager;
+    private final ThreadPoolExecutor decoders;
+    private final LinkedBlockingQueue<Job> decoded;
+    private final HashMap<String, Job> jobs;
+    private long sequence;
+    
+    private final class Job implements Runnable, Comparable<Job> {
+        private final String fileName;
+        private final CompletableFuture<Texture> future;
+        private final AssetLoadEvent event;
+        private int priority;
+        private long sequence;
+        private TextureData data;
+        private Throwable error;
+        
+        private Job(String fileName) {
+            this.fileName = fileName;
+            future = new CompletableFuture<>();
+            event = AssetLoadEvent.start(fileName);
+        }
+        
+        @Override
+        public void run() {
+            long start = event == null ? 0 : System.nanoTime();
+            try {
+                FileHandle file = assetManager.getFileHandleResolver().resolve(fileName);
+                PixelCache pixelCache = assetManager.getPixelCache();
+                if (pixelCache != null) data = pixelCache.load(fileName, file);
+                else data = new FileTextureData(file, file instanceof BundleFileHandle bundled
+                        ? bundled.decodePixmap() : new Pixmap(file), null, false);
+            } catch (Throwable t) {
+                error = t;
+            }
+            if (event != null) event.setDecodeTime(System.nanoTime() - start);
+            decoded.add(this);
+        }
+        
+        @Override
+        public int compareTo(@NotNull Job other) {
+            if (priority != other.priority) return Integer.compare(other.priority, priority);
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+    
+    TextureLoadPipeline(PipelineAssetManager assetManager, int threads) {
+        this.assetManager = assetManager;
+        AtomicInteger count = new AtomicInteger();
+        decoders = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "texture-decoder-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        decoded = new LinkedBlockingQueue<>();
+        jobs = new HashMap<>();
+    }
+    
+    /**
+     * Queues a {@link Texture} file for decoding. Requesting a file that is already queued returns the same future,
+     * raising the priority of the request if it was not picked by a worker yet.
+     */
+    CompletableFuture<Texture> load(String fileName, int priority) {
+        Job job = jobs.get(fileName);
+        if (job == null) {
+            job = new Job(fileName);
+            job.priority = priority;
+            job.sequence = sequence++;
+            jobs.put(fileName, job);
+            decoders.execute(job);
+        } else if (priority > job.priority && decoders.getQueue().remove(job)) {
+            job.priority = priority;
+            decoders.execute(job);
+        }
+        return job.future;
+    }
+    
+    boolean isQueued(String fileName) { return jobs.containsKey(fileName); }
+    
+    boolean isEmpty() { return jobs.isEmpty(); }
+    
+    /**
+     * Uploads decoded textures for at most {@code budgetMillis} milliseconds.
+     *
+     * @return {@code true} if nothing is left to load
+     */
+    boolean update(int budgetMillis) {
+        long end = TimeUtils.millis() + budgetMillis;
+        Job job;
+        while (TimeUtils.millis() < end && (job = decoded.poll()) != null) upload(job);
+        return jobs.isEmpty();
+    }
+    
+    /**
+     * Blocks until the given file is decoded and uploaded, uploading every other texture decoded meanwhile.
+     */
+    void finish(String fileName) {
+        Job job = jobs.get(fileName);
+        if (job != null && job.event != null) job.event.setBlocking(true);
+        while (jobs.containsKey(fileName)) upload(takeDecoded());
+    }
+    
+    /**
+     * Blocks until every queued file is decoded and uploaded.
+     */
+    void finish() {
+        for (Job job : jobs.values()) if (job.event != null) job.event.setBlocking(true);
+        while (!jobs.isEmpty()) upload(takeDecoded());
+    }
+    
+    private Job takeDecoded() {
+        try {
+            return decoded.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException("Interrupted while waiting for textures to decode", e);
+        }
+    }
+    
+    private void upload(@NotNull Job job) {
+        jobs.remove(job.fileName);
+        if (job.error != null) {
+            job.future.completeExceptionally(job.error);
+            return;
+        }
+        long start = job.event == null ? 0 : System.nanoTime();
+        if (assetManager.isLoaded(job.fileName, Texture.class)) discard(job.data);
+        else assetManager.addAsset(job.fileName, Texture.class, new Texture(job.data));
+        Texture texture = assetManager.get(job.fileName, Texture.class);
+        if (job.event != null)
+            job.event.setUploadTime(System.nanoTime() - start).finish(AssetManagerHandler.estimateBytes(texture));
+        job.future.complete(texture);
+    }
+    
+    /**
+     * Releases decoded data that will not be uploaded.
+     */
+    private static void discard(@NotNull TextureData data) {
+        if (data.getType() == TextureData.TextureDataType.Pixmap && data.isPrepared()) data.consumePixmap().dispose();
+    }
+    
+    /**
+     * Stops the workers and cancels every queued load, disposing what was already decoded.
+     */
+    void dispose() {
+        decoders.shutdownNow();
+        try {
+            decoders.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Job job : decoded) if (job.data != null) discard(job.data);
+        decoded.clear();
+        for (Job job : jobs.values()) job.future.cancel(false);
+        jobs.clear();
+    }
+}
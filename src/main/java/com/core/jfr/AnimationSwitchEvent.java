@@ -0,0 +1,65 @@
+package com.core.jfr;
+
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A Java Flight Recorder event for an actor switching its animation, either to another
+ * {@link com.core.base.enums.Direction Direction} of its sprite sheet (see
+ * {@link com.core.base.actor.BaseActor4D#setDirection BaseActor4D.setDirection}) or to a new animation altogether.
+ *
+ * @author Tamir Eliraz
+ */
+@Name("com.core.AnimationSwitch")
+@Label("Animation Switch")
+@Category({"BaseGame", "Actors"})
+@Description("An actor switching its animation or direction")
+@StackTrace(false)
+public final class AnimationSwitchEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(AnimationSwitchEvent.class);
+    
+    @Label("Actor Class")
+    private Class<?> actorClass;
+    @Label("Actor Name")
+    private String actorName;
+    @Label("From Direction")
+    @Description("The previous direction, or null for a new animation")
+    private String from;
+    @Label("To Direction")
+    @Description("The new direction, or null for a new animation")
+    private String to;
+    @Label("Key Frames")
+    private int keyFrames;
+    
+    private AnimationSwitchEvent() { }
+    
+    /**
+     * Commits an event for a switch, if this event is being recorded.
+     *
+     * @param actor
+     *         the switching actor
+     * @param from
+     *         the name of the previous direction, or {@code null} for a new animation
+     * @param to
+     *         the name of the new direction, or {@code null} for a new animation
+     * @param keyFrames
+     *         the number of key frames of the new animation
+     */
+    public static void record(@NotNull Actor actor, String from, String to, int keyFrames) {
+        if (!TYPE.isEnabled()) return;
+        AnimationSwitchEvent event = new AnimationSwitchEvent();
+        event.actorClass = actor.getClass();
+        event.actorName = actor.getName();
+        event.from = from;
+        event.to = to;
+        event.keyFrames = keyFrames;
+        event.commit();
+    }
+}
@@ -0,0 +1,94 @@
+package com.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>A Java Flight Recorder event for a {@link com.badlogic.gdx.graphics.Texture Texture} loaded by
+ * {@link com.core.handler.AssetManagerHandler AssetManagerHandler}, lasting from the moment the load was requested to
+ * the moment the texture was ready. Textures decoded in parallel (see
+ * {@link com.core.handler.AssetManagerHandler#setDecodeThreads AssetManagerHandler.setDecodeThreads}) record their
+ * decoding and uploading times separately; textures loaded by the
+ * {@link com.badlogic.gdx.assets.AssetManager AssetManager} record {@code 0} for both.</p>
+ *
+ * @author Tamir Eliraz
+ */
+@Name("com.core.AssetLoad")
+@Label("Asset Load")
+@Category({"BaseGame", "Assets"})
+@Description("A texture loaded by AssetManagerHandler")
+@StackTrace(false)
+public final class AssetLoadEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(AssetLoadEvent.class);
+    
+    @Label("File")
+    private final String file;
+    @Label("Size")
+    @DataAmount
+    private long bytes;
+    @Label("Decode Time")
+    @Timespan
+    private long decodeTime;
+    @Label("Upload Time")
+    @Timespan
+    private long uploadTime;
+    @Label("Blocking")
+    @Description("Whether the render thread waited for the load")
+    private boolean blocking;
+    
+    private AssetLoadEvent(String file) { this.file = file; }
+    
+    /**
+     * Starts the event of a load, if this event is being recorded.
+     *
+     * @param file
+     *         the name of the loaded file
+     * @return the started event, or {@code null} if this event is not being recorded
+     */
+    public static @Nullable AssetLoadEvent start(String file) {
+        if (!TYPE.isEnabled()) return null;
+        AssetLoadEvent event = new AssetLoadEvent(file);
+        event.begin();
+        return event;
+    }
+    
+    /**
+     * @param decodeTime
+     *         the time, in nanoseconds, spent decoding the file
+     * @return this event to allow for method chaining
+     */
+    public AssetLoadEvent setDecodeTime(long decodeTime) { this.decodeTime = decodeTime; return this; }
+    
+    /**
+     * @param uploadTime
+     *         the time, in nanoseconds, spent uploading the texture to the GPU
+     * @return this event to allow for method chaining
+     */
+    public AssetLoadEvent setUploadTime(long uploadTime) { this.uploadTime = uploadTime; return this; }
+    
+    /**
+     * @param blocking
+     *         whether the render thread waited for the load
+     * @return this event to allow for method chaining
+     */
+    public AssetLoadEvent setBlocking(boolean blocking) { this.blocking = blocking; return this; }
+    
+    /**
+     * Ends and commits this event.
+     *
+     * @param bytes
+     *         the estimated size of the loaded texture in bytes
+     */
+    public void finish(long bytes) {
+        this.bytes = bytes;
+        commit();
+    }
+}
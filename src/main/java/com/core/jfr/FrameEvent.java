@@ -0,0 +1,109 @@
+package com.core.jfr;
+
+import com.core.base.game.BaseStage;
+import com.core.base.game.FrameProfiler;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A Java Flight Recorder event for a frame of a {@link com.core.base.game.BaseScreen BaseScreen}, lasting as long as
+ * its {@link com.core.base.game.BaseScreen#render(float) render}, with the time spent in each
+ * {@link FrameProfiler.Phase phase} and the counters of its stage, the same values a {@link FrameProfiler} records.
+ *
+ * @author Tamir Eliraz
+ */
+@Name("com.core.Frame")
+@Label("Frame")
+@Category({"BaseGame", "Rendering"})
+@Description("A frame rendered by BaseScreen, by phase")
+@StackTrace(false)
+public final class FrameEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(FrameEvent.class);
+    
+    @Label("Input Time")
+    @Timespan
+    private long input;
+    @Label("Load Time")
+    @Timespan
+    private long load;
+    @Label("Camera Time")
+    @Timespan
+    private long camera;
+    @Label("Act Time")
+    @Timespan
+    private long act;
+    @Label("Clear Time")
+    @Timespan
+    private long clear;
+    @Label("Draw Time")
+    @Timespan
+    private long draw;
+    @Label("Drawn")
+    @Description("Whether the stage was drawn, rather than skipped by render on demand")
+    private boolean drawn;
+    @Label("Render Calls")
+    private int renderCalls;
+    @Label("Texture Switches")
+    private int textureSwitches;
+    @Label("Drawn Actors")
+    private int drawnActors;
+    @Label("Culled Actors")
+    private int culledActors;
+    private transient long phaseStart;
+    
+    private FrameEvent() { }
+    
+    /**
+     * Starts the event of a frame, if this event is being recorded.
+     *
+     * @return the started event, or {@code null} if this event is not being recorded
+     */
+    public static @Nullable FrameEvent start() {
+        if (!TYPE.isEnabled()) return null;
+        FrameEvent event = new FrameEvent();
+        event.begin();
+        event.phaseStart = System.nanoTime();
+        return event;
+    }
+    
+    /**
+     * Ends a phase of this frame, which started where the previous phase ended.
+     */
+    public void endPhase(@NotNull FrameProfiler.Phase phase) {
+        long now = System.nanoTime(), time = now - phaseStart;
+        phaseStart = now;
+        switch (phase) {
+            case INPUT -> input += time;
+            case LOAD -> load += time;
+            case CAMERA -> camera += time;
+            case ACT -> act += time;
+            case CLEAR -> clear += time;
+            case DRAW -> draw += time;
+        }
+    }
+    
+    /**
+     * Ends and commits this event, with the counters of the given stage.
+     *
+     * @param drawn
+     *         whether the stage was drawn in this frame
+     */
+    public void finish(@NotNull BaseStage stage, boolean drawn) {
+        this.drawn = drawn;
+        if (drawn) {
+            renderCalls = stage.getRenderCalls();
+            textureSwitches = stage.getTextureSwitches();
+            drawnActors = stage.getDrawnCount();
+            culledActors = stage.getCulledCount();
+        }
+        commit();
+    }
+}
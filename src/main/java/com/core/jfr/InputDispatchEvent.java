@@ -0,0 +1,79 @@
+package com.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A Java Flight Recorder event for a key event dispatched by {@link com.core.handler.InputRouter InputRouter} to the
+ * {@link com.core.handler.InputProcessorAdapter InputProcessorAdapter}s subscribed to its key, lasting as long as the
+ * subscribers took to handle it, with the latency between the backend receiving the event and its dispatch.
+ *
+ * @author Tamir Eliraz
+ */
+@Name("com.core.InputDispatch")
+@Label("Input Dispatch")
+@Category({"BaseGame", "Input"})
+@Description("A key event dispatched to its subscribers")
+@StackTrace(false)
+public final class InputDispatchEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(InputDispatchEvent.class);
+    
+    @Label("Key Code")
+    private int keycode;
+    @Label("Down")
+    @Description("Whether the key was pressed, rather than released")
+    private boolean down;
+    @Label("Subscribers")
+    private int subscribers;
+    @Label("Handled")
+    private boolean handled;
+    @Label("Latency")
+    @Description("The time between the backend receiving the event and its dispatch, or 0 if unknown")
+    @Timespan
+    private long latency;
+    
+    private InputDispatchEvent() { }
+    
+    /**
+     * Starts the event of a dispatch, if this event is being recorded.
+     *
+     * @param keycode
+     *         the dispatched key
+     * @param down
+     *         whether the key was pressed, rather than released
+     * @param subscribers
+     *         the number of processors the event is dispatched to
+     * @param eventTime
+     *         the {@link System#nanoTime()} at which the backend received the event (see
+     *         {@link com.badlogic.gdx.Input#getCurrentEventTime()}), or {@code 0} if unknown
+     * @return the started event, or {@code null} if this event is not being recorded
+     */
+    public static @Nullable InputDispatchEvent start(int keycode, boolean down, int subscribers, long eventTime) {
+        if (!TYPE.isEnabled()) return null;
+        InputDispatchEvent event = new InputDispatchEvent();
+        event.keycode = keycode;
+        event.down = down;
+        event.subscribers = subscribers;
+        event.latency = eventTime > 0 ? Math.max(0, System.nanoTime() - eventTime) : 0;
+        event.begin();
+        return event;
+    }
+    
+    /**
+     * Ends and commits this event.
+     *
+     * @param handled
+     *         whether any subscriber handled the event
+     */
+    public void finish(boolean handled) {
+        this.handled = handled;
+        commit();
+    }
+}
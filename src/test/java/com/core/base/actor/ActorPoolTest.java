@@ -0,0 +1,75 @@
+package com.core.base.actor;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.core.base.enums.Direction;
+import com.core.handler.InputRouter;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ActorPoolTest {
+    private static final int SPAWNS = 10_000;
+    private static final int ROUNDS = 5;
+    private static String sheet;
+    
+    @BeforeAll
+    static void setUp() {
+        TestApplication.start();
+        sheet = TestApplication.sheet("build/test-assets/pool.png");
+    }
+    
+    private static ActorPool<BaseActor4D> pool(InputMultiplexer input) {
+        return new ActorPool<>(() -> new BaseActor4D(0, 0, null, input, 0.1f, sheet, TestApplication.COLUMNS,
+                Direction.UP, Direction.LEFT, Direction.DOWN, Direction.RIGHT));
+    }
+    
+    @Test
+    void steadyStateSpawningAllocatesNothing() {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                               && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ActorPool<BaseActor4D> pool = pool(new InputMultiplexer()).prewarm(8);
+        Group parent = new Group();
+        spawnAndDespawn(pool, parent);
+        // A round may still count the objects the JIT materializes when it deoptimizes code, so measure a few rounds;
+        // an allocation per spawn would show in every one of them.
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS && allocated > 0; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            spawnAndDespawn(pool, parent);
+            allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        }
+        assertEquals(0, allocated, "bytes allocated by " + SPAWNS + " spawns");
+    }
+    
+    private static void spawnAndDespawn(ActorPool<BaseActor4D> pool, Group parent) {
+        for (int i = 0; i < SPAWNS; i++) {
+            BaseActor4D actor = pool.obtain(i, i, parent);
+            actor.setDirection(Direction.UP).startAnimation();
+            actor.act(1 / 60f);
+            actor.remove();
+        }
+    }
+    
+    @Test
+    void freeActorsIgnoreInput() {
+        ActorPool<BaseActor4D> pool = pool(new InputMultiplexer());
+        InputRouter router = InputRouter.getInstance();
+        int subscribers = router.getSubscriberCount(Input.Keys.UP);
+        BaseActor4D actor = pool.obtain(0, 0, new Group());
+        assertEquals(subscribers + 1, router.getSubscriberCount(Input.Keys.UP));
+        actor.remove();
+        assertEquals(subscribers, router.getSubscriberCount(Input.Keys.UP));
+        router.keyDown(Input.Keys.UP);
+        assertEquals(Direction.RIGHT, actor.getCurrentDirection());
+        assertSame(actor, pool.obtain(0, 0, new Group()));
+        assertEquals(subscribers + 1, router.getSubscriberCount(Input.Keys.UP));
+    }
+}
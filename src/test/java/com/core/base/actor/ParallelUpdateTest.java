@@ -0,0 +1,133 @@
+package com.core.base.actor;
+
+import com.badlogic.gdx.scenes.scene2d.actions.Actions;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.core.base.game.BaseStage;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelUpdateTest {
+    private static final long SEED = 20240613L;
+    private static final int ACTORS = 2_000;
+    private static final int TICKS = 300;
+    private static final float DT = 1 / 60f;
+    private static final float SIZE = 1000;
+    
+    /**
+     * An actor bouncing inside the scene, which defers a log entry on every bounce and its own removal on its tenth.
+     */
+    private static final class Walker extends BaseActor {
+        private final int id;
+        private final IntArray log;
+        private float vx, vy;
+        private int bounces;
+        
+        private Walker(int id, Random random, IntArray log) {
+            super(random.nextFloat() * SIZE, random.nextFloat() * SIZE);
+            this.id = id;
+            this.log = log;
+            vx = (random.nextFloat() - 0.5f) * 800;
+            vy = (random.nextFloat() - 0.5f) * 800;
+            setSize(8, 8);
+        }
+        
+        @Override
+        protected void update(float dt) {
+            float x = getX() + vx * dt, y = getY() + vy * dt;
+            boolean bounced = false;
+            if (x < 0 || x > SIZE) {
+                vx = -vx;
+                bounced = true;
+            }
+            if (y < 0 || y > SIZE) {
+                vy = -vy;
+                bounced = true;
+            }
+            setPosition(Math.max(0, Math.min(SIZE, x)), Math.max(0, Math.min(SIZE, y)));
+            if (!bounced) return;
+            defer(() -> log.add(id));
+            if (++bounces == 10) defer(this::remove);
+        }
+    }
+    
+    /**
+     * Records the position of the actor before it, as its own update sees it.
+     */
+    private static final class Observer extends BaseActor {
+        private final BaseActor observed;
+        private float seenX;
+        
+        private Observer(BaseActor observed) { this.observed = observed; }
+        
+        @Override
+        protected void update(float dt) { seenX = observed.getX(); }
+    }
+    
+    @BeforeAll
+    static void setUp() { TestApplication.start(); }
+    
+    /**
+     * Runs the seeded scene and returns the final position of every actor, by id ({@code NaN} for removed ones),
+     * followed by the order in which the bounces of all the actors were logged.
+     */
+    private static float[] simulate(ParallelUpdate parallelUpdate) {
+        BaseStage stage = new BaseStage();
+        if (parallelUpdate != null)
+            stage.setParallelUpdate(true).getParallelUpdate().setPool(parallelUpdate.getPool())
+                    .setChunkSize(parallelUpdate.getChunkSize());
+        Random random = new Random(SEED);
+        IntArray log = new IntArray();
+        Walker[] walkers = new Walker[ACTORS];
+        for (int i = 0; i < ACTORS; i++) {
+            walkers[i] = new Walker(i, random, log);
+            walkers[i].setIndependentUpdate(random.nextInt(4) != 0);
+            if (random.nextInt(3) == 0)
+                walkers[i].addAction(Actions.forever(Actions.sequence(Actions.moveBy(random.nextFloat() * 20, 0, 0.5f),
+                        Actions.delay(random.nextFloat()))));
+            stage.addActor(walkers[i]);
+        }
+        for (int tick = 0; tick < TICKS; tick++) stage.act(DT);
+        FloatArray result = new FloatArray();
+        for (Walker walker : walkers) {
+            result.add(walker.getStage() == null ? Float.NaN : walker.getX());
+            result.add(walker.getStage() == null ? Float.NaN : walker.getY());
+        }
+        for (int i = 0; i < log.size; i++) result.add(log.get(i));
+        stage.dispose();
+        return result.toArray();
+    }
+    
+    @Test
+    void parallelUpdateMatchesSerialUpdate() {
+        float[] serial = simulate(null);
+        assertArrayEquals(serial, simulate(new ParallelUpdate(ForkJoinPool.commonPool(), 64)));
+        assertArrayEquals(serial, simulate(new ParallelUpdate(new ForkJoinPool(4), 7)));
+        assertArrayEquals(serial, simulate(new ParallelUpdate(new ForkJoinPool(1), ACTORS)));
+    }
+    
+    @Test
+    void otherActorsSeeIndependentActorsBeforeTheirUpdateInBothModes() {
+        float[] seen = new float[2];
+        for (int mode = 0; mode < 2; mode++) {
+            BaseStage stage = new BaseStage().setParallelUpdate(mode == 1);
+            Walker walker = new Walker(0, new Random(SEED), new IntArray());
+            walker.setIndependentUpdate(true);
+            walker.setPosition(SIZE / 2, SIZE / 2);
+            Observer observer = new Observer(walker);
+            stage.addActor(walker);
+            stage.addActor(observer);
+            stage.act(DT);
+            seen[mode] = observer.seenX;
+            assertEquals(SIZE / 2, observer.seenX);
+            stage.dispose();
+        }
+        assertEquals(seen[0], seen[1]);
+    }
+}
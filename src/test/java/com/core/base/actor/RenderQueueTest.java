@@ -0,0 +1,49 @@
+package com.core.base.actor;
+
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.core.base.game.BaseStage;
+import com.core.base.group.BaseBodyPart;
+import com.core.base.group.BaseGroup;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RenderQueueTest {
+    private static String body, head;
+    
+    @BeforeAll
+    static void setUp() {
+        TestApplication.start();
+        body = TestApplication.sheet("build/test-assets/body.png");
+        head = TestApplication.sheet("build/test-assets/head.png");
+    }
+    
+    private enum Part implements BaseBodyPart {
+        BODY, HEAD;
+        
+        @Override
+        public @NotNull String fileName() { return this == BODY ? body : head; }
+    }
+    
+    private static final class Character extends BaseGroup {
+        private Character(float x, float y, BaseStage stage) { super(x, y, stage); }
+        
+        @Override
+        protected BaseBodyPart[] values() { return Part.values(); }
+    }
+    
+    @Test
+    void charactersAreSortedByTexture() {
+        BaseStage stage = new BaseStage(new ScreenViewport());
+        new Character(10, 10, stage);
+        new Character(100, 10, stage);
+        stage.draw();
+        assertEquals(4, stage.getRenderCalls(), "render calls in scene-graph order");
+        stage.setRenderQueueEnabled(true).draw();
+        assertEquals(2, stage.getTextureSwitches());
+        assertEquals(2, stage.getRenderCalls(), "render calls with the render queue");
+        stage.dispose();
+    }
+}
@@ -0,0 +1,34 @@
+package com.core.tools;
+
+import com.core.handler.AssetBundle;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * <p>The asset bundle packer, run by {@code gradle packAssets}. It packs every file under the input directory into a
+ * single {@link AssetBundle}, each named by its path relative to the directory, so that a bundle packed from the
+ * assets directory holds the files under the names the game loads them by.</p>
+ * <p>Usage: {@code AssetBundlePacker <input directory> <bundle file>}</p>
+ *
+ * @author Tamir Eliraz
+ */
+public final class AssetBundlePacker {
+    private AssetBundlePacker() { }
+    
+    public static void main(String @NotNull [] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: AssetBundlePacker <input directory> <bundle file>");
+            System.exit(2);
+        }
+        Path input = Path.of(args[0]), bundle = Path.of(args[1]);
+        if (!Files.isDirectory(input)) {
+            System.err.println("Not a directory: " + input);
+            System.exit(1);
+        }
+        int count = AssetBundle.pack(input, bundle);
+        System.out.println("Packed " + count + " files into " + bundle + " (" + Files.size(bundle) + " bytes)");
+    }
+}
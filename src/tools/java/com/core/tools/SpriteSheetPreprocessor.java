@@ -0,0 +1,164 @@
+package com.core.tools;
+
+import com.core.base.actor.BaseAnimation;
+import com.core.base.actor.SpriteSheetMetadata;
+import com.core.base.enums.Direction;
+import org.jetbrains.annotations.NotNull;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * <p>The build-time sprite sheet preprocessor, run by {@code gradle preprocessSprites}. For every PNG sprite sheet of
+ * the input directory that has a {@code .properties} file of the same name next to it, it writes to the same relative
+ * path of the output directory the sheet, with its colors premultiplied by their alpha if asked, and its
+ * {@link SpriteSheetMetadata}, which {@link com.core.base.actor.AnimationSet#load AnimationSet.load} reads at
+ * runtime.</p>
+ * <p>The properties of a sheet are:</p>
+ * <ul>
+ *     <li>{@code cols}: the number of columns of frames, required;</li>
+ *     <li>{@code rows}: the number of rows of frames, {@code 4} by default;</li>
+ *     <li>{@code frameDuration}: the duration of each frame in seconds,
+ *     {@value BaseAnimation#DEFAULT_FRAME_DURATION} by default;</li>
+ *     <li>{@code directions}: the {@link Direction} of each row from the top, comma separated, with {@code -} for a row
+ *     not bound to a direction, none by default;</li>
+ *     <li>{@code premultiply}: whether to premultiply the colors by their alpha, {@code false} by default, or the
+ *     {@code --premultiply} argument.</li>
+ * </ul>
+ * <p>Usage: {@code SpriteSheetPreprocessor <input directory> <output directory> [--premultiply]}</p>
+ *
+ * @author Tamir Eliraz
+ */
+public final class SpriteSheetPreprocessor {
+    private static final int DEFAULT_ROWS = 4;
+    private final Path input, output;
+    private final boolean premultiplyAll;
+    
+    private SpriteSheetPreprocessor(Path input, Path output, boolean premultiplyAll) {
+        this.input = input;
+        this.output = output;
+        this.premultiplyAll = premultiplyAll;
+    }
+    
+    public static void main(String @NotNull [] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SpriteSheetPreprocessor <input directory> <output directory> [--premultiply]");
+            System.exit(2);
+        }
+        boolean premultiply = args.length > 2 && args[2].equals("--premultiply");
+        int count = new SpriteSheetPreprocessor(Path.of(args[0]), Path.of(args[1]), premultiply).run();
+        System.out.println("Preprocessed " + count + " sprite sheets into " + args[1]);
+    }
+    
+    private int run() throws IOException {
+        if (!Files.isDirectory(input)) return 0;
+        List<Path> sheets;
+        try (Stream<Path> files = Files.walk(input)) {
+            sheets = files.filter(file -> file.toString().endsWith(".png")).sorted().toList();
+        }
+        int count = 0;
+        for (Path sheet : sheets) {
+            Path spec = sheet.resolveSibling(baseName(sheet) + ".properties");
+            if (!Files.exists(spec)) continue;
+            process(sheet, spec);
+            count++;
+        }
+        return count;
+    }
+    
+    private void process(@NotNull Path sheet, @NotNull Path spec) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(spec)) {
+            properties.load(in);
+        }
+        String colsProperty = properties.getProperty("cols");
+        if (colsProperty == null) throw new IllegalArgumentException("Missing cols in " + spec);
+        int cols = Integer.parseInt(colsProperty.trim());
+        int rows = Integer.parseInt(properties.getProperty("rows", String.valueOf(DEFAULT_ROWS)).trim());
+        float frameDuration = Float.parseFloat(properties.getProperty("frameDuration",
+                String.valueOf(BaseAnimation.DEFAULT_FRAME_DURATION)).trim());
+        Direction[] directions = parseDirections(properties.getProperty("directions", ""), rows, spec);
+        boolean premultiply = premultiplyAll || Boolean.parseBoolean(properties.getProperty("premultiply", "false"));
+        
+        byte[] source = Files.readAllBytes(sheet);
+        BufferedImage image = ImageIO.read(sheet.toFile());
+        if (image == null) throw new IOException("Not an image: " + sheet);
+        int width = image.getWidth(), height = image.getHeight();
+        
+        Path relative = input.relativize(sheet);
+        Path texture = output.resolve(relative);
+        Files.createDirectories(texture.getParent());
+        if (premultiply) ImageIO.write(premultiply(image), "png", texture.toFile());
+        else Files.write(texture, source);
+        
+        int frameWidth = width / cols, frameHeight = height / rows;
+        int[] frames = new int[rows * cols * 4];
+        for (int row = 0, i = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                frames[i++] = col * frameWidth;
+                frames[i++] = row * frameHeight;
+                frames[i++] = frameWidth;
+                frames[i++] = frameHeight;
+            }
+        }
+        SpriteSheetMetadata metadata = new SpriteSheetMetadata(texture.getFileName().toString(), sha256(source),
+                width, height, premultiply, frameDuration, rows, cols, directions, frames);
+        try (OutputStream out = Files.newOutputStream(
+                texture.resolveSibling(baseName(texture) + SpriteSheetMetadata.FILE_EXTENSION))) {
+            metadata.write(out);
+        }
+    }
+    
+    private static Direction @NotNull [] parseDirections(@NotNull String property, int rows, Path spec) {
+        Direction[] directions = new Direction[rows];
+        if (property.isBlank()) return directions;
+        String[] names = property.split(",");
+        if (names.length > rows) throw new IllegalArgumentException("More directions than rows in " + spec);
+        for (int row = 0; row < names.length; row++) {
+            String name = names[row].trim();
+            directions[row] = name.equals("-") ? null : Direction.valueOf(name);
+        }
+        return directions;
+    }
+    
+    /**
+     * @return a copy of the image, with every color multiplied by its alpha
+     */
+    private static @NotNull BufferedImage premultiply(@NotNull BufferedImage image) {
+        int width = image.getWidth(), height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        for (int i = 0; i < pixels.length; i++) {
+            int argb = pixels[i], alpha = argb >>> 24;
+            int red = (argb >> 16 & 0xFF) * alpha / 255, green = (argb >> 8 & 0xFF) * alpha / 255;
+            int blue = (argb & 0xFF) * alpha / 255;
+            pixels[i] = alpha << 24 | red << 16 | green << 8 | blue;
+        }
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        result.setRGB(0, 0, width, height, pixels, 0, width);
+        return result;
+    }
+    
+    private static byte @NotNull [] sha256(byte @NotNull [] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static @NotNull String baseName(@NotNull Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+}